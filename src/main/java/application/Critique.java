@@ -2,7 +2,6 @@ package application;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
 
 /**
  * A critique about a restaurant.
@@ -15,6 +14,7 @@ public class Critique extends RestaurantOverview{
     private String critico;
     private int critiqueCode;
     private String restaurantCode;
+    private volatile CritiqueView view;
 
     /**
      * Create a new critique
@@ -24,12 +24,13 @@ public class Critique extends RestaurantOverview{
      *
      */
     public Critique(String critico,String restaurantCode, int critiqueCode) {
-        this.sections = new HashMap<>();
+        super(new double[CRITIQUE_SECTIONS.length], null, 0);
         this.dishes = new HashMap<>();
         this.restaurantCode = restaurantCode;
         this.critico = critico;
         this.comment=null;
         this.critiqueCode= critiqueCode ;
+        this.view = CritiqueView.of(this);
     }
 
     /**
@@ -50,6 +51,7 @@ public class Critique extends RestaurantOverview{
         try{
             checkNumber(grade);
             insertVote(grade);
+            this.view = CritiqueView.of(this);
 
         }catch (InvalidNumberException e){
             System.err.println(e.getMessage());
@@ -66,7 +68,8 @@ public class Critique extends RestaurantOverview{
     public void voteDishes(HashMap<MenuEntry, Double> dv){
         try{
             this.dishes = dv;
-            this.sections.put(CritiqueSections.CUCINA,meanDishes());
+            this.grades[CritiqueSections.CUCINA.ordinal()] = meanDishes();
+            this.view = CritiqueView.of(this);
         }
         catch (InvalidNumberException e){
             System.err.println(e.getMessage());
@@ -75,11 +78,20 @@ public class Critique extends RestaurantOverview{
 
     /**
      * Method called when the critic has to be display in its restaurant web page.
-     * @return
+     * The view is built when the critique is created and again each time it is modified,
+     * so the pages never pay for it.
+     * @return the formatted lines of the critique
+     */
+    public CritiqueView getView() {
+        return view;
+    }
+
+    /**
+     * @return a String which contains the lines of the view divided by a separator(£) in order to be parsed
      */
     @Override
     public String toString() {
-        return this.sectionsToString() + this.dishesToString()+"COMMENTO :£" + this.comment;
+        return getView().toString();
     }
 
     /**
@@ -88,38 +100,7 @@ public class Critique extends RestaurantOverview{
      */
     public void setComment(String comment) {
         this.comment = comment;
-    }
-
-    /**
-     * Method called by toString or critiqueToString methods
-     *
-     * @return a String which contains all the sections and their grades divided by a separator(£) in order to be parsed
-     */
-    private String sectionsToString(){
-        StringBuilder stb =  new StringBuilder();
-        String separator =  "£";
-        for( int i = 0 ;i < CRITIQUE_SECTIONS.length; i++){
-            CritiqueSections  en = CRITIQUE_SECTIONS[i];
-            double voto = this.sections.get(en);
-            stb.append(en.toString()+": "+String.format("%.2f", voto).replace(",",".")+separator);
-        }
-        return stb.toString();
-    }
-
-    /**
-     * Method called by toString or critiqueToString methods
-     *
-     * @return a String which contains all the name and the grades of dishes of the critiques divided by a separator(£)
-     * in order to be parsed
-     */
-    private String dishesToString(){
-        StringBuilder stb = new StringBuilder();
-        String separator = "£";
-        stb.append("Piatti assaggiati: "+separator);
-        for(Map.Entry<MenuEntry, Double> dish : this.dishes.entrySet()){
-            stb.append(dish.getKey().getDish() + ": " + String.format("%.2f", dish.getValue()).replace(",",".")+separator);
-        }
-        return stb.toString();
+        this.view = CritiqueView.of(this);
     }
 
     /**
@@ -142,7 +123,7 @@ public class Critique extends RestaurantOverview{
     private void insertVote(double[] vote){
 
         for(int i=0; i<CRITIQUE_SECTIONS.length-1; i++){
-            this.sections.put(CRITIQUE_SECTIONS[i], vote[i]);
+            this.grades[i] = vote[i];
         }
     }
 
@@ -186,10 +167,6 @@ public class Critique extends RestaurantOverview{
     }
 
     public double getMeanCrit(){
-        double temp = 0;
-        for(Map.Entry<CritiqueSections, Double> e : this.sections.entrySet() ){
-            temp = e.getValue() + temp;
-        }
-        return temp/this.sections.size();
+        return getMean();
     }
 }
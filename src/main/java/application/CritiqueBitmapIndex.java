@@ -0,0 +1,291 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * An index of the critiques which answers a CritiqueQuery by intersecting bitmaps.
+ * The critiques are divided by restaurant, and each critique is identified by its row among the ones of its
+ * restaurant: for each section (and for the mean of the sections) and for each grade from MINVOTO to MAXVOTO
+ * a restaurant has a bitmap of its rows whose grade is at least that one, so a condition "section >= grade"
+ * is a single bitmap, as long as the critiques of the restaurant. Each row also keeps the id of the critique
+ * and the one of its critic; a critic keeps the restaurants of its critiques, so a query is answered
+ * only from the rows of the restaurants it can select.
+ * The index can also be built on ids given by the caller, such as the codes of the critiques, without keeping
+ * the critiques: they are then read through a function when a query selects them.
+ */
+public class CritiqueBitmapIndex {
+
+    private static final int GRADES = RestaurantOverview.MAXVOTO - RestaurantOverview.MINVOTO + 1;
+    private static final int MEAN = RestaurantOverview.CRITIQUE_SECTIONS.length;
+
+    private ArrayList<Critique> critiques;
+    private IntFunction<Critique> resolver;
+    private HashMap<String, Partition> byRestaurant;
+    private HashMap<String, Integer> criticIds;
+    private ArrayList<Set<Partition>> partitionsOfCritic;
+    private ReentrantReadWriteLock lock;
+
+    /**
+     * The rows of the critiques of a restaurant
+     */
+    private static final class Partition {
+        private int[] ids = new int[4];
+        private int[] critics = new int[4];
+        private int count;
+        private final BitSet[][] atLeast;
+
+        Partition() {
+            this.atLeast = new BitSet[MEAN + 1][GRADES];
+            for (BitSet[] slot : atLeast) {
+                for (int g = 0; g < GRADES; g++)
+                    slot[g] = new BitSet();
+            }
+        }
+
+        void add(int id, int critic, Critique critique) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                critics = Arrays.copyOf(critics, count * 2);
+            }
+            int row = count++;
+            ids[row] = id;
+            critics[row] = critic;
+            for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS) {
+                setAtLeast(section.ordinal(), critique.getGrade(section), row);
+            }
+            setAtLeast(MEAN, critique.getMeanCrit(), row);
+        }
+
+        private void setAtLeast(int slot, double grade, int row) {
+            for (int g = RestaurantOverview.MINVOTO; g <= RestaurantOverview.MAXVOTO && grade >= g; g++)
+                atLeast[slot][g - RestaurantOverview.MINVOTO].set(row);
+        }
+
+        /**
+         * Adds to the ids the ones of the rows which satisfy the conditions of the query on the grades
+         * and, if critic is not negative, whose critic is that one
+         */
+        void select(CritiqueQuery query, int critic, IntList selected) {
+            BitSet result = null;
+            for (Map.Entry<CritiqueSections, Integer> e : query.getMinGrades().entrySet()) {
+                result = and(result, gradeBitmap(e.getKey().ordinal(), e.getValue()));
+            }
+            if (query.getMinMean() != null)
+                result = and(result, gradeBitmap(MEAN, query.getMinMean()));
+            if (result == null) {
+                for (int row = 0; row < count; row++) {
+                    if (critic < 0 || critics[row] == critic)
+                        selected.add(ids[row]);
+                }
+                return;
+            }
+            for (int row = result.nextSetBit(0); row >= 0 && row < count; row = result.nextSetBit(row + 1)) {
+                if (critic < 0 || critics[row] == critic)
+                    selected.add(ids[row]);
+            }
+        }
+
+        /**
+         * @return the bitmap of the rows whose grade in the slot is at least the one given,
+         * an empty bitmap if the grade is greater than MAXVOTO, or null if the condition is always true
+         */
+        private BitSet gradeBitmap(int slot, int grade) {
+            if (grade < RestaurantOverview.MINVOTO)
+                return null;
+            if (grade > RestaurantOverview.MAXVOTO)
+                return new BitSet();
+            return atLeast[slot][grade - RestaurantOverview.MINVOTO];
+        }
+    }
+
+    /**
+     * A growable list of primitive ints
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Creates an index which keeps the critiques, identified by the order they are added
+     */
+    public CritiqueBitmapIndex() {
+        this(null);
+        this.critiques = new ArrayList<>();
+    }
+
+    /**
+     * Creates an index which does not keep the critiques
+     * @param resolver the function which returns the critique of an id given to add(int, Critique)
+     */
+    public CritiqueBitmapIndex(IntFunction<Critique> resolver) {
+        this.resolver = resolver;
+        this.byRestaurant = new HashMap<>();
+        this.criticIds = new HashMap<>();
+        this.partitionsOfCritic = new ArrayList<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Adds a critique to an index which keeps the critiques
+     * @param critique the critique
+     */
+    public void add(Critique critique) {
+        lock.writeLock().lock();
+        try {
+            int id = critiques.size();
+            critiques.add(critique);
+            index(id, critique);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a critique to an index built on ids given by the caller
+     * @param id the id of the critique, not negative
+     * @param critique the critique, which is not kept
+     */
+    public void add(int id, Critique critique) {
+        lock.writeLock().lock();
+        try {
+            index(id, critique);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int id, Critique critique) {
+        Partition partition = byRestaurant.computeIfAbsent(critique.getRestaurantCode(), code -> new Partition());
+        Integer critic = criticIds.get(critique.getCritico());
+        if (critic == null) {
+            critic = partitionsOfCritic.size();
+            criticIds.put(critique.getCritico(), critic);
+            partitionsOfCritic.add(new HashSet<>());
+        }
+        partition.add(id, critic, critique);
+        partitionsOfCritic.get(critic).add(partition);
+    }
+
+    /**
+     * Selects the critiques which satisfy all the conditions of the query
+     * @param query the conditions
+     * @return the critiques selected, in the order of their ids
+     */
+    public ArrayList<Critique> query(CritiqueQuery query) {
+        int[] ids = select(query);
+        ArrayList<Critique> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Critique critique = resolve(id);
+            if (critique != null)
+                result.add(critique);
+        }
+        return result;
+    }
+
+    /**
+     * Selects a page of the critiques which satisfy all the conditions of the query, from the greatest id
+     * down (so the critiques added last come first). Only the ids are returned: the critiques of the page
+     * are read through getCritique.
+     * @param query the conditions
+     * @param beforeId the id of the last critique of the previous page, or null for the first page
+     * @param limit the maximum number of ids
+     * @return the ids of the critiques selected, in decreasing order
+     */
+    public int[] queryIds(CritiqueQuery query, Integer beforeId, int limit) {
+        int[] ids = select(query);
+        int end = ids.length;
+        if (beforeId != null) {
+            int position = Arrays.binarySearch(ids, beforeId);
+            end = position >= 0 ? position : -position - 1;
+        }
+        int[] page = new int[Math.min(limit, end)];
+        for (int i = 0; i < page.length; i++)
+            page[i] = ids[end - 1 - i];
+        return page;
+    }
+
+    /**
+     * @param id the id of a critique
+     * @return the critique, or null if it can not be found
+     */
+    public Critique getCritique(int id) {
+        return resolve(id);
+    }
+
+    /**
+     * @return the ids of the critiques which satisfy all the conditions of the query, in increasing order
+     */
+    private int[] select(CritiqueQuery query) {
+        IntList selected = new IntList();
+        lock.readLock().lock();
+        try {
+            int critic = -1;
+            Collection<Partition> partitions = byRestaurant.values();
+            if (query.getCritic() != null) {
+                Integer id = criticIds.get(query.getCritic());
+                if (id == null)
+                    return new int[0];
+                critic = id;
+                partitions = partitionsOfCritic.get(critic);
+            }
+            if (query.getRestaurantCode() != null) {
+                Partition partition = byRestaurant.get(query.getRestaurantCode());
+                if (partition == null || (critic >= 0 && !partitionsOfCritic.get(critic).contains(partition)))
+                    return new int[0];
+                partitions = Collections.singleton(partition);
+            }
+            for (Partition partition : partitions)
+                partition.select(query, critic, selected);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return selected.toSortedArray();
+    }
+
+    private Critique resolve(int id) {
+        if (critiques == null)
+            return resolver.apply(id);
+        lock.readLock().lock();
+        try {
+            return critiques.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersects the result with a bitmap of the index, which is never modified.
+     * A null result means that there are no conditions yet, a null bitmap a condition which is always true.
+     */
+    private static BitSet and(BitSet result, BitSet bitmap) {
+        if (bitmap == null)
+            return result;
+        if (result == null)
+            return (BitSet) bitmap.clone();
+        result.and(bitmap);
+        return result;
+    }
+}
@@ -1,25 +1,49 @@
 package application;
 
 import application.restaurant_exception.NoCritiquesException;
-import persistence.OverviewMapper;
+import persistence.CritiqueColumnStore;
 import persistence.PersistenceFacade;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Singleton class
  * A catalogue of the critiques which have been compiled
+ * If the critiques are kept in the off-heap store of the persistence, the catalogue does not keep them:
+ * the bitmap index is built on their codes, and a page of the critiques of a restaurant or of a critic
+ * is read from the indexes of the store, so that only the critiques of the page are read.
  */
 public class CritiqueCatalogue {
+    public static final int CRITIQUES_PAGE_SIZE = 10;
     private static CritiqueCatalogue instance = null;
-    private CritiqueFilter critFilter = null;
+    private CritiqueColumnStore store;
+    private CritiqueBitmapIndex bitmapIndex;
+    private ConcurrentHashMap<String, RestaurantStatistics> statistics;
+    private ConcurrentHashMap<String, Object> overviewLocks;
+    private ConcurrentHashMap<String, RestaurantCritiqueFeed> critiquesByRestaurant;
+    private ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, Critique>> critiquesByCritic;
 
+    /**
+     * Create the catalogue, indexing by restaurant, by critic and by grades all the critiques which are in the system
+     */
     private CritiqueCatalogue() {
 
-        this.critFilter = new CritiqueFilter();
+        this.store = PersistenceFacade.getInstance().getCritiqueStore();
+        this.bitmapIndex = store == null ? new CritiqueBitmapIndex() : new CritiqueBitmapIndex(store::getByCode);
+        this.statistics = new ConcurrentHashMap<>();
+        this.overviewLocks = new ConcurrentHashMap<>();
+        this.critiquesByRestaurant = new ConcurrentHashMap<>();
+        this.critiquesByCritic = new ConcurrentHashMap<>();
+        for (Critique c : this.getCritiques()) {
+            indexCritique(c);
+        }
     }
 
     /**
@@ -28,7 +52,7 @@ public class CritiqueCatalogue {
      * If class has not been already created it instantiates the class and returns the instance
      * @return instance(CritiqueCatalogue)
      */
-    public static CritiqueCatalogue getInstance(){
+    public static synchronized CritiqueCatalogue getInstance(){
         if (instance == null)
             instance = new CritiqueCatalogue();
         return instance;
@@ -37,76 +61,197 @@ public class CritiqueCatalogue {
     /**
      * Method which is called from 'HomeCritic' when a critic write a critique,
      * in order to add it in the catalogue system.
+     * The critiques of the same restaurant are added one at a time, so that each new overview
+     * is computed from the one which includes all the previous critiques.
      *
      * @param critique the critique
      */
     public void addNewCritique(Critique critique)throws SQLException{
-        PersistenceFacade.getInstance().addNewCritique(critique);
-        updateRestaurantOverview(critique.getRestaurantCode());
+        String restaurantCode = critique.getRestaurantCode();
+        synchronized (overviewLocks.computeIfAbsent(restaurantCode, code -> new Object())) {
+            RestaurantOverview ro = computeRestaurantOverview(critique);
+            PersistenceFacade.getInstance().addNewCritique(critique, ro);
+            indexCritique(critique);
+            RestaurantCatalogue.getInstance().setRestaurantOverview(restaurantCode, ro);
+        }
+    }
+
+    /**
+     * Method which adds a critique to the feed of the critiques of its restaurant,
+     * to the one of the critiques of its critic (ordered by code) and to the bitmap index,
+     * and adds its grades to the statistics of the restaurant.
+     * With the off-heap store only the bitmap index (on the code of the critique) and the statistics are updated.
+     *
+     * @param critique the critique
+     */
+    private void indexCritique(Critique critique){
+        if (store != null) {
+            bitmapIndex.add(critique.getCritiqueCode(), critique);
+        } else {
+            critiquesByRestaurant.computeIfAbsent(critique.getRestaurantCode(),
+                    code -> new RestaurantCritiqueFeed()).add(critique);
+            critiquesByCritic.computeIfAbsent(critique.getCritico(),
+                    critic -> new ConcurrentSkipListMap<>()).put(critique.getCritiqueCode(), critique);
+            bitmapIndex.add(critique);
+        }
+        statistics.computeIfAbsent(critique.getRestaurantCode(), code -> new RestaurantStatistics()).add(critique);
     }
 
     /**
-     * Method which is called from 'HomeCritic' to show only the critiques compiled by the current logged critic
+     * Method which is called from 'HomeCritic' to show only the critiques compiled by the current logged critic.
+     * The critiques are read from the index of the critic, from the most recent to the oldest,
+     * CRITIQUES_PAGE_SIZE at a time.
      *
      * @param critic, the name of the critic ('username')
-     * @return critique, the list of critiques of the critic selected
-     */
-    public ArrayList<String> getCritiquesByUser(String critic)throws SQLException {
-        ArrayList<String> critique = new ArrayList<>();
-        for (Critique c: this.getCritiques()) {
-            if(c.getCritico().equals(critic)){
-                String restaurantName = RestaurantCatalogue.getInstance().getRestaurantName(c.getRestaurantCode());
-                critique.add(restaurantName+"£"+c.toString());
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return critique, the page of critiques of the critic selected
+     */
+    public CritiquePage getCritiquesByUser(String critic, String cursor)throws SQLException {
+        if (store != null) {
+            if (store.countCritiquesOfCritic(critic) == 0)
+                throw new NoCritiquesException("Nessuna critica ancora compilata!");
+            int[] codes = store.getCodesOfCritic(critic, cursor == null ? null : Integer.valueOf(cursor),
+                    CRITIQUES_PAGE_SIZE + 1);
+            CritiquePage page = storePage(codes);
+            for (int i = 0; i < page.getCritiques().size(); i++) {
+                String restaurantName = RestaurantCatalogue.getInstance()
+                        .getRestaurantName(store.getRestaurantOf(codes[i]));
+                page.getCritiques().set(i, page.getCritiques().get(i).withHeading(restaurantName));
             }
+            return page;
         }
-        if(critique.isEmpty())
+        NavigableMap<Integer, Critique> indexed = critiquesByCritic.get(critic);
+        if(indexed == null || indexed.isEmpty())
             throw new NoCritiquesException("Nessuna critica ancora compilata!");
-        return critique;
+        NavigableMap<Integer, Critique> older = cursor == null ? indexed.descendingMap()
+                : indexed.headMap(Integer.parseInt(cursor), false).descendingMap();
+        ArrayList<CritiqueView> critique = new ArrayList<>();
+        String nextCursor = null;
+        int lastCode = 0;
+        for (Critique c: older.values()) {
+            if(critique.size() == CRITIQUES_PAGE_SIZE){
+                nextCursor = Integer.toString(lastCode);
+                break;
+            }
+            String restaurantName = RestaurantCatalogue.getInstance().getRestaurantName(c.getRestaurantCode());
+            critique.add(c.getView().withHeading(restaurantName));
+            lastCode = c.getCritiqueCode();
+        }
+        return new CritiquePage(critique, nextCursor);
     }
 
     /**
      * Method called by  'updateRestaurantOverview' and 'getRestaurantCritiqueToString' in this class.
-     * It selected only the critiques of a particular restaurant
+     * It selected only the critiques of a particular restaurant, through the index of the critiques by restaurant
      *
      * @param restaurantCode, the code of the restaurant selected
      * @return restaurantCritics, the list of the critiques of the restaurant
      */
     public HashSet<Critique> getRestaurantCritics(String restaurantCode){
-        HashSet<Critique> restaurantCritics = new HashSet<>();
-        for (Critique c: this.getCritiques()) {
-            if(c.getRestaurantCode().equals(restaurantCode)){
-                restaurantCritics.add(c);
-            }
+        if (store != null) {
+            checkStoreHasCritiques(restaurantCode);
+            return new HashSet<>(store.getCritiquesOfRestaurant(restaurantCode));
+        }
+        return new HashSet<>(getRestaurantFeed(restaurantCode).getCritiques());
+    }
+
+    /**
+     * Method which is called to show to an user a page of the critiques of a restaurant
+     *
+     * @param restaurantCode, the code of the restaurant selected
+     * @param order, the order of the critiques
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return the page with the views of at most CRITIQUES_PAGE_SIZE critiques
+     */
+    public CritiquePage getRestaurantCritiquePage(String restaurantCode, CritiqueOrder order, String cursor){
+        if (store != null) {
+            checkStoreHasCritiques(restaurantCode);
+            return storePage(store.getCodesOfRestaurant(restaurantCode, order,
+                    cursor == null ? null : Integer.valueOf(cursor), CRITIQUES_PAGE_SIZE + 1));
         }
-        if (restaurantCritics.isEmpty()) {
+        return getRestaurantFeed(restaurantCode).page(order, cursor, CRITIQUES_PAGE_SIZE);
+    }
+
+    /**
+     * @param restaurantCode, the code of the restaurant
+     * @return the feed of the critiques of the restaurant
+     */
+    private RestaurantCritiqueFeed getRestaurantFeed(String restaurantCode){
+        RestaurantCritiqueFeed feed = critiquesByRestaurant.get(restaurantCode);
+        if (feed == null || feed.isEmpty()) {
             throw new NoCritiquesException("Ancora nessuna critica per il ristorante selezionato");
         }
-        return restaurantCritics;
+        return feed;
+    }
+
+    private void checkStoreHasCritiques(String restaurantCode){
+        if (store.countCritiquesOfRestaurant(restaurantCode) == 0)
+            throw new NoCritiquesException("Ancora nessuna critica per il ristorante selezionato");
+    }
+
+    /**
+     * Method which builds a page from the codes read from the off-heap store: one code more than the page
+     * is read, so that the cursor is returned only if there are other critiques, and only the critiques
+     * of the page are read from the store (their views are cached by the store).
+     *
+     * @param codes, the codes of at most CRITIQUES_PAGE_SIZE + 1 critiques
+     * @return the page with the views of at most CRITIQUES_PAGE_SIZE critiques
+     */
+    private CritiquePage storePage(int[] codes){
+        ArrayList<CritiqueView> page = new ArrayList<>();
+        int length = Math.min(codes.length, CRITIQUES_PAGE_SIZE);
+        for (int i = 0; i < length; i++)
+            page.add(store.getView(codes[i]));
+        String nextCursor = codes.length > CRITIQUES_PAGE_SIZE ? Integer.toString(codes[length - 1]) : null;
+        return new CritiquePage(page, nextCursor);
+    }
+
+    /**
+     * Method which returns the distributions of the grades of the critiques of a restaurant
+     *
+     * @param restaurantCode, the code of the restaurant selected
+     * @return the statistics of the restaurant (empty if it has no critiques)
+     */
+    public RestaurantStatistics getRestaurantStatistics(String restaurantCode){
+        RestaurantStatistics rs = statistics.get(restaurantCode);
+        return rs == null ? new RestaurantStatistics() : rs;
     }
 
     /**
      * Method called by 'addNewCritique' in this class
-     * It updates the overview of a restaurant after that a critic has written a critique
+     * It computes the overview of a restaurant including the critique which is being written,
+     * so that both can be saved together.
+     * The current overview is copied and the critique is added to its running sums; only the first time
+     * (when the overview has been read from the database and the number of its critiques is not known)
+     * the sums are computed from all the critiques of the restaurant.
      *
-     * @param restaurantCode, the code of the restaurant which has been critiqued
+     * @param critique, the new critique of the restaurant
+     * @return the new overview of the restaurant
      */
-    private void updateRestaurantOverview(String restaurantCode)throws SQLException{
-        RestaurantOverview ro = new RestaurantOverview();
-        ro.computeMean(getRestaurantCritics(restaurantCode));
-        RestaurantCatalogue.getInstance().setRestaurantOverview(restaurantCode,ro);
-        PersistenceFacade.getInstance().updateTable(OverviewMapper.class,ro,restaurantCode);
+    private RestaurantOverview computeRestaurantOverview(Critique critique)throws SQLException{
+        RestaurantOverview ro = new RestaurantOverview(RestaurantCatalogue.getInstance()
+                .getRestaurantOverviewAggregate(critique.getRestaurantCode()));
+        if(!ro.hasCritiqueCount()) {
+            try {
+                ro.computeMean(getRestaurantCritics(critique.getRestaurantCode()));
+            } catch (NoCritiquesException e) {
+                ro.computeMean(new HashSet<>());
+            }
+        }
+        ro.addCritique(critique);
+        return ro;
     }
 
     /**
      * Method which is called to show to an user the overview of a restaurant with its critiques
      *
      * @param restCrit, the critiques to print
-     * @return critiques, the list of the critiques of the restaurant in String format
+     * @return critiques, the list of the views of the critiques of the restaurant
      */
-    public LinkedList<String> getRestaurantCritiqueToString(HashSet<Critique> restCrit){
-        LinkedList<String> critiques = new LinkedList<>();
+    public LinkedList<CritiqueView> getRestaurantCritiqueToString(Collection<Critique> restCrit){
+        LinkedList<CritiqueView> critiques = new LinkedList<>();
         for(Critique c : restCrit){
-            critiques.add(c.toString());
+            critiques.add(c.getView());
         }
         return critiques;
     }
@@ -116,7 +261,7 @@ public class CritiqueCatalogue {
      *
      * @return  critiques saved in the mapper CritiquesMapper
      */
-    private HashSet<Critique> getCritiques(){
+    private Collection<Critique> getCritiques(){
         return PersistenceFacade.getInstance().getCritiques();
     }
 
@@ -124,11 +269,13 @@ public class CritiqueCatalogue {
      *Method which select the critiques with a mean >= of the grade
      *
      *  @param grade, the vote used to select the critiques
-     *  @return only the critiques which verify the condition
+     *  @param restCode code of the restaurant
+     *  @param cursor, the cursor returned with the previous page, or null for the first page
+     *  @return a page of the critiques which verify the condition
      */
-    public LinkedList<String> getRestCritByVoteToString(int grade, String restCode){
-        return this.getRestaurantCritiqueToString(this.critFilter.getRestCritByVote(this.getRestaurantCritics(restCode),
-                grade));
+    public CritiquePage getRestCritByVotePage(int grade, String restCode, String cursor){
+        return queryPage(new CritiqueQuery().ofRestaurant(restCode).withMinMean(grade), cursor,
+                "Nessuna Critica con un voto medio desiderato.");
     }
 
 
@@ -138,11 +285,56 @@ public class CritiqueCatalogue {
      * @param grade,  the vote used to select the critiques
      * @param restCode code of the restaurant
      * @param section of the critiques
-     * @return only the critiques which verify the condition
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return a page of the critiques which verify the condition
      */
-    public LinkedList<String> getRestCritByVoteSectionToString(int grade, String restCode, CritiqueSections section){
-        return this.getRestaurantCritiqueToString(this.critFilter.getRestCritByVoteSection(
-                                                    this.getRestaurantCritics(restCode), grade, section));
+    public CritiquePage getRestCritByVoteSectionPage(int grade, String restCode, CritiqueSections section,
+                                                     String cursor){
+        return queryPage(new CritiqueQuery().ofRestaurant(restCode).withMinGrade(section, grade), cursor,
+                "Nessuna Critica che soddisfa i criteri selezionati.");
+    }
+
+    /**
+     * Method which select the critiques which verify all the conditions of the query
+     *
+     * @param query, the conditions (restaurant, critic, minimum grades of the sections and of the mean)
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return a page of the critiques which verify the conditions
+     */
+    public CritiquePage getCritiquesByQueryPage(CritiqueQuery query, String cursor){
+        return queryPage(query, cursor, "Nessuna Critica che soddisfa i criteri selezionati.");
+    }
+
+    /**
+     * Method which builds a page of the critiques selected by the bitmap index, the most recent first:
+     * only the ids of the critiques are selected, and only the critiques of the page are read.
+     * As in storePage one id more than the page is read, so that the cursor is returned only if there
+     * are other critiques.
+     *
+     * @param query, the conditions
+     * @param cursor, the id of the last critique of the previous page, or null for the first page
+     * @param emptyMessage, the message of the exception thrown if no critique verifies the conditions
+     * @return the page with the views of at most CRITIQUES_PAGE_SIZE critiques
+     * @throws NumberFormatException if the cursor is not a number
+     */
+    private CritiquePage queryPage(CritiqueQuery query, String cursor, String emptyMessage){
+        int[] ids = bitmapIndex.queryIds(query, cursor == null ? null : Integer.valueOf(cursor),
+                CRITIQUES_PAGE_SIZE + 1);
+        if(ids.length == 0 && cursor == null)
+            throw new NoCritiquesException(emptyMessage);
+        ArrayList<CritiqueView> page = new ArrayList<>();
+        int length = Math.min(ids.length, CRITIQUES_PAGE_SIZE);
+        for (int i = 0; i < length; i++) {
+            CritiqueView view = store != null ? store.getView(ids[i]) : viewOf(bitmapIndex.getCritique(ids[i]));
+            if (view != null)
+                page.add(view);
+        }
+        String nextCursor = ids.length > CRITIQUES_PAGE_SIZE ? Integer.toString(ids[length - 1]) : null;
+        return new CritiquePage(page, nextCursor);
+    }
+
+    private static CritiqueView viewOf(Critique critique){
+        return critique == null ? null : critique.getView();
     }
 
 }
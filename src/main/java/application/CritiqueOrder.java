@@ -0,0 +1,33 @@
+package application;
+
+/**
+ * The orders in which the critiques of a restaurant can be shown:
+ * from the most recent, or from the highest grade of the mean or of a section.
+ */
+public enum CritiqueOrder {
+    RECENT(null), MEAN(null), MENU(CritiqueSections.MENU), LOCATION(CritiqueSections.LOCATION),
+    SERVIZIO(CritiqueSections.SERVIZIO), CONTO(CritiqueSections.CONTO), CUCINA(CritiqueSections.CUCINA);
+
+    private final CritiqueSections section;
+
+    CritiqueOrder(CritiqueSections section) {
+        this.section = section;
+    }
+
+    /**
+     * @return the section by which the critiques are ordered, or null for RECENT and MEAN
+     */
+    public CritiqueSections getSection() {
+        return section;
+    }
+
+    /**
+     * @param critique the critique
+     * @return the grade by which the critique is ordered (not used by RECENT)
+     */
+    public double gradeOf(Critique critique) {
+        if (section == null)
+            return critique.getMeanCrit();
+        return critique.getGrade(section);
+    }
+}
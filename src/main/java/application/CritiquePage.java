@@ -0,0 +1,38 @@
+package application;
+
+import java.util.ArrayList;
+
+/**
+ * A page of the critiques written by a critic, from the most recent to the oldest.
+ */
+public class CritiquePage {
+
+    private ArrayList<CritiqueView> critiques;
+    private String nextCursor;
+
+    /**
+     * Create a new page
+     * @param critiques the views of the critiques of the page
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public CritiquePage(ArrayList<CritiqueView> critiques, String nextCursor) {
+        this.critiques = critiques;
+        this.nextCursor = nextCursor;
+    }
+
+    public ArrayList<CritiqueView> getCritiques() {
+        return critiques;
+    }
+
+    /**
+     * @return the value which has to be given back to get the next page (the code of the last critique
+     * of this page), or null if there are no more critiques
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,73 @@
+package application;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The conditions a critique has to satisfy to be selected by CritiqueBitmapIndex.
+ * All the conditions which are set have to be satisfied together.
+ */
+public class CritiqueQuery {
+
+    private String restaurantCode;
+    private String critic;
+    private Integer minMean;
+    private EnumMap<CritiqueSections, Integer> minGrades;
+
+    public CritiqueQuery() {
+        this.minGrades = new EnumMap<>(CritiqueSections.class);
+    }
+
+    /**
+     * @param restaurantCode the code of the restaurant the critiques are about
+     * @return this query
+     */
+    public CritiqueQuery ofRestaurant(String restaurantCode) {
+        this.restaurantCode = restaurantCode;
+        return this;
+    }
+
+    /**
+     * @param critic the username of the critic who wrote the critiques
+     * @return this query
+     */
+    public CritiqueQuery byCritic(String critic) {
+        this.critic = critic;
+        return this;
+    }
+
+    /**
+     * @param grade the minimum mean of the sections of the critiques
+     * @return this query
+     */
+    public CritiqueQuery withMinMean(int grade) {
+        this.minMean = grade;
+        return this;
+    }
+
+    /**
+     * @param section the section of the critiques
+     * @param grade the minimum grade of the section
+     * @return this query
+     */
+    public CritiqueQuery withMinGrade(CritiqueSections section, int grade) {
+        this.minGrades.put(section, grade);
+        return this;
+    }
+
+    public String getRestaurantCode() {
+        return restaurantCode;
+    }
+
+    public String getCritic() {
+        return critic;
+    }
+
+    public Integer getMinMean() {
+        return minMean;
+    }
+
+    public Map<CritiqueSections, Integer> getMinGrades() {
+        return minGrades;
+    }
+}
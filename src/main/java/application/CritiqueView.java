@@ -0,0 +1,69 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The lines of a critique shown in the web pages, already formatted: the grades of the sections,
+ * the dishes with their grades and the comment.
+ * It is built once by the critique and reused by every page which shows it.
+ */
+public final class CritiqueView {
+
+    private final List<String> lines;
+
+    private CritiqueView(List<String> lines) {
+        this.lines = Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Builds the view of a critique
+     * @param critique the critique
+     * @return the view
+     */
+    static CritiqueView of(Critique critique) {
+        List<String> lines = new ArrayList<>(RestaurantOverview.CRITIQUE_SECTIONS.length
+                + critique.getDishes().size() + 3);
+        for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS)
+            lines.add(section + ": " + GradeFormat.format(critique.getGrade(section)));
+        lines.add("Piatti assaggiati: ");
+        for (Map.Entry<MenuEntry, Double> dish : critique.getDishes().entrySet())
+            lines.add(dish.getKey().getDish() + ": " + GradeFormat.format(dish.getValue()));
+        lines.add("COMMENTO :");
+        lines.add(String.valueOf(critique.getComment()));
+        return new CritiqueView(lines);
+    }
+
+    /**
+     * @param message a message shown in place of the critiques, for example when there are none
+     * @return a view whose only line is the message
+     */
+    public static CritiqueView message(String message) {
+        return new CritiqueView(Collections.singletonList(message));
+    }
+
+    /**
+     * @param heading the line to show before the critique, for example the name of its restaurant
+     * @return a new view with the heading followed by the lines of this one
+     */
+    public CritiqueView withHeading(String heading) {
+        List<String> headed = new ArrayList<>(lines.size() + 1);
+        headed.add(heading);
+        headed.addAll(lines);
+        return new CritiqueView(headed);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the lines divided by the separator used by the critiques in String format (£)
+     */
+    @Override
+    public String toString() {
+        return String.join("£", lines);
+    }
+}
@@ -0,0 +1,53 @@
+package application;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Formats the grades shown in the web pages with a dot as separator, as
+ * String.format("%.2f", grade).replace(",",".") does, without depending on the locale
+ * and without parsing a format string at each call.
+ * The grade is rounded half up from its shortest decimal representation (the one of Double.toString),
+ * as Formatter does, so 1.005 becomes "1.01" even if the closest double is slightly smaller.
+ * The grades with at most two decimals between 0 and MAXVOTO (the ones written by the critics and most
+ * of the grades of the dishes) are read from a table built once; the others, such as the means, go through
+ * BigDecimal.
+ */
+public final class GradeFormat {
+
+    private static final int TABLE_SCALE = 100;
+    private static final String[] TABLE = new String[RestaurantOverview.MAXVOTO * TABLE_SCALE + 1];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++)
+            TABLE[i] = BigDecimal.valueOf(i, 2).toPlainString();
+    }
+
+    private GradeFormat() {
+    }
+
+    /**
+     * @param grade the grade
+     * @return the grade rounded to two decimals (half up), for example "7.50"
+     */
+    public static String format(double grade) {
+        double scaled = grade * TABLE_SCALE;
+        if (scaled >= 0 && scaled < TABLE.length) {
+            int i = (int) Math.round(scaled);
+            if (i / (double) TABLE_SCALE == grade)
+                return TABLE[i];
+        }
+        return format(grade, 2);
+    }
+
+    /**
+     * @param grade the grade
+     * @param decimals the number of decimals
+     * @return the grade rounded to the given decimals (half up)
+     */
+    public static String format(double grade, int decimals) {
+        if (Double.isNaN(grade) || Double.isInfinite(grade))
+            return Double.toString(grade);
+        return BigDecimal.valueOf(grade).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+    }
+}
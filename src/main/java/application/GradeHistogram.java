@@ -0,0 +1,90 @@
+package application;
+
+/**
+ * The distribution of the grades (from MINVOTO to MAXVOTO) given to a section.
+ * Each grade is counted in the bucket of its integer part; the number of grades greater or equal
+ * to each bucket is kept updated, so that it can be read without summing the buckets.
+ */
+public class GradeHistogram {
+
+    private static final int GRADES = RestaurantOverview.MAXVOTO - RestaurantOverview.MINVOTO + 1;
+
+    private int[] counts;
+    private int[] atLeast;
+    private int total;
+
+    public GradeHistogram() {
+        this.counts = new int[GRADES];
+        this.atLeast = new int[GRADES];
+        this.total = 0;
+    }
+
+    /**
+     * Adds a grade to the distribution
+     * @param grade the grade (out of range grades are counted in the first or in the last bucket)
+     */
+    public synchronized void add(double grade) {
+        int bucket = bucketOf(grade);
+        counts[bucket]++;
+        for (int i = 0; i <= bucket; i++)
+            atLeast[i]++;
+        total++;
+    }
+
+    /**
+     * @param grade the minimum grade
+     * @return the number of grades greater or equal to the one given
+     */
+    public synchronized int countAtLeast(int grade) {
+        if (grade <= RestaurantOverview.MINVOTO)
+            return total;
+        if (grade > RestaurantOverview.MAXVOTO)
+            return 0;
+        return atLeast[grade - RestaurantOverview.MINVOTO];
+    }
+
+    /**
+     * @param grade the grade
+     * @return the number of grades whose integer part is the one given
+     */
+    public synchronized int count(int grade) {
+        if (grade < RestaurantOverview.MINVOTO || grade > RestaurantOverview.MAXVOTO)
+            return 0;
+        return counts[grade - RestaurantOverview.MINVOTO];
+    }
+
+    /**
+     * @return the number of grades in the distribution
+     */
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the integer part of the median grade, or 0 if there are no grades
+     */
+    public synchronized int getMedian() {
+        if (total == 0)
+            return 0;
+        int half = (total + 1) / 2;
+        int seen = 0;
+        for (int i = 0; i < GRADES; i++) {
+            seen += counts[i];
+            if (seen >= half)
+                return i + RestaurantOverview.MINVOTO;
+        }
+        return RestaurantOverview.MAXVOTO;
+    }
+
+    /**
+     * @return the number of grades of each bucket, from MINVOTO to MAXVOTO
+     */
+    public synchronized int[] getCounts() {
+        return counts.clone();
+    }
+
+    private static int bucketOf(double grade) {
+        int bucket = (int) Math.floor(grade) - RestaurantOverview.MINVOTO;
+        return Math.max(0, Math.min(GRADES - 1, bucket));
+    }
+}
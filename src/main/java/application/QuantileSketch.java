@@ -0,0 +1,56 @@
+package application;
+
+/**
+ * A sketch which estimates the quantiles of a stream of grades using a fixed amount of memory.
+ * Since grades are bounded by MINVOTO and MAXVOTO, the values are counted in buckets of width RESOLUTION:
+ * a quantile is found with an error smaller than RESOLUTION whatever the number of values.
+ */
+public class QuantileSketch {
+
+    public static final double RESOLUTION = 0.1;
+    private static final int BUCKETS =
+            (int) Math.round((RestaurantOverview.MAXVOTO - RestaurantOverview.MINVOTO) / RESOLUTION) + 1;
+
+    private long[] counts;
+    private long total;
+
+    public QuantileSketch() {
+        this.counts = new long[BUCKETS];
+        this.total = 0;
+    }
+
+    /**
+     * Adds a value to the sketch
+     * @param value the value (out of range values are counted as MINVOTO or MAXVOTO)
+     */
+    public synchronized void add(double value) {
+        int bucket = (int) Math.round((value - RestaurantOverview.MINVOTO) / RESOLUTION);
+        counts[Math.max(0, Math.min(BUCKETS - 1, bucket))]++;
+        total++;
+    }
+
+    /**
+     * @param q the quantile, between 0 and 1 (0.5 is the median)
+     * @return the estimated value of the quantile, or 0 if there are no values
+     */
+    public synchronized double quantile(double q) {
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return RestaurantOverview.MINVOTO + i * RESOLUTION;
+        }
+        return RestaurantOverview.MAXVOTO;
+    }
+
+    public synchronized double getMedian() {
+        return quantile(0.5);
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+}
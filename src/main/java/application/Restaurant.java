@@ -57,6 +57,13 @@ public class Restaurant {
         this.overview = overview;
     }
 
+    /**
+     * @return the overview of the restaurant, which must not be modified: it is copied when a critique is added
+     */
+    RestaurantOverview getRestaurantOverview() {
+        return overview;
+    }
+
     /**
      * Method called when  the names of the dishes in the restaurant's menu are required.
      *
@@ -116,7 +123,7 @@ public class Restaurant {
         HashMap<String, String> temp = new HashMap<>();
         for (CritiqueSections i : CritiqueSections.values()) {
             temp.put((String.valueOf(i)),
-                    String.format("%.2f", this.overview.getSections().get(i)).replace(",","."));
+                    GradeFormat.format(this.overview.getGrade(i)));
         }
         return temp;
     }
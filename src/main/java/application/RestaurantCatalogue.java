@@ -2,12 +2,15 @@ package application;
 
 import application.restaurant_exception.RestaurantAlreadyExistingException;
 import application.restaurant_exception.RestaurantNotFoundException;
+import application.restaurant_exception.SimilarRestaurantException;
 import persistence.OIDCreator;
 import persistence.PersistenceFacade;
 import persistence.RestaurantsMapper;
 
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Singleton class
@@ -15,14 +18,20 @@ import java.util.*;
  */
 public  class RestaurantCatalogue {
     private static RestaurantCatalogue instance = null;
+    private RestaurantIndex index;
+    private ConcurrentHashMap<String, AtomicLong> versions;
 
 
     /**
      * Create a new RestaurantCatalogue
-     * initialize restaurants, HashMap of the restaurants('key':= code of restaurant, 'value':= the restaurant)
-     * initialize counter, the counter used to generate the code of the restaurant in the system
+     * initialize index, the index of the names and addresses of the restaurants in the system
      */
     private RestaurantCatalogue(){
+        this.index = new RestaurantIndex();
+        this.versions = new ConcurrentHashMap<>();
+        for(Map.Entry<String, Restaurant> e : getAllRestaurants().entrySet()){
+            this.index.add(e.getKey(), e.getValue().getName(), e.getValue().getAddress());
+        }
     }
 
     /**
@@ -42,15 +51,20 @@ public  class RestaurantCatalogue {
      * @param name of the restaurant
      * @param address of the restaurant
      * @param owner of the restaurant(username)
+     * @param confirmedSimilar the code of the similar restaurant which the owner has confirmed to be a different
+     *                         one (the one given by a previous SimilarRestaurantException), or null
      * @return the counter of the class used to create the code of the new restaurant
      * @throws RestaurantAlreadyExistingException
+     * @throws SimilarRestaurantException
      */
-    public  String addRestaurant(String name, String address,String city, String owner) throws RestaurantAlreadyExistingException,
-            SQLException{
-        checkExisting(name, address);
+    public synchronized String addRestaurant(String name, String address,String city, String owner,
+                                             String confirmedSimilar) throws RestaurantAlreadyExistingException,
+            SimilarRestaurantException, SQLException{
+        checkExisting(name, address, confirmedSimilar);
         Restaurant r = new Restaurant(name, address, owner,city);
         String restaurantCode = OIDCreator.getInstance().getNewRestaurantCode();
         PersistenceFacade.getInstance().addRestaurant(restaurantCode,r);
+        this.index.add(restaurantCode, name, address);
         return restaurantCode;
     }
 
@@ -81,36 +95,26 @@ public  class RestaurantCatalogue {
 
     /**
      * Method which is called by 'addRestaurant' to check if a new restaurant which is in registration step,
-     * is already in the system
+     * is already in the system. A restaurant with the same name and address (ignoring case, accents and spaces)
+     * is rejected; a restaurant whose name and address are only similar (such as another branch in the same
+     * street) is reported to the owner, who can confirm the registration.
      *
      * @param name of the restaurant to register
      * @param address of the restaurant to register
+     * @param confirmedSimilar the code of the similar restaurant confirmed by the owner, or null
      */
-    private void checkExisting(String name, String address){
-        Map<String, Restaurant> restaurantsCopy = getAllRestaurants();
-        if(restaurantsCopy.isEmpty())
-            return;
-        for (String code : restaurantsCopy.keySet()) {
-            if (checkInfo(code, name, address))
-                throw new RestaurantAlreadyExistingException("Il ristorante è già presente nel sistema !");
+    private void checkExisting(String name, String address, String confirmedSimilar){
+        if (this.index.findSame(name, address) != null)
+            throw new RestaurantAlreadyExistingException("Il ristorante è già presente nel sistema !");
+        String similar = this.index.findSimilar(name, address);
+        if (similar != null && !similar.equals(confirmedSimilar)) {
+            Restaurant r = getAllRestaurants().get(similar);
+            throw new SimilarRestaurantException("Nel sistema è già presente un ristorante simile: "
+                    + r.getName() + ", " + r.getAddress() + ". Se è un altro ristorante conferma la registrazione.",
+                    similar);
         }
     }
 
-    /**
-     * Called by 'checkExisting' to verify if the name and address input are the same of the ones of the restaurant
-     * identified by the code
-     *
-     * @param code of the restaurant in the system
-     * @param name of the restaurant in registration step
-     * @param address of the restaurant in registration step
-     * @return a boolean (true if name or address are the same of the restaurant in the system)
-     */
-    private boolean checkInfo(String code,String name, String address){
-        Map<String, Restaurant> restaurantsCopy = getAllRestaurants();
-        return restaurantsCopy.get(code).getName().equals(name) &&
-                restaurantsCopy.get(code).getAddress().equals(address);
-    }
-
     /**
      * Method which is called to show to restaurant's owner the list of his restaurants
      *
@@ -119,9 +123,11 @@ public  class RestaurantCatalogue {
      */
     public Map<Integer, String> myRestaurant(String owner){
         HashMap<Integer,String> myRest = new HashMap<>();
-        for(Map.Entry<String, Restaurant> restaurant:getAllRestaurants().entrySet()) {
-            if (restaurant.getValue().getOwner().equals(owner))
-                myRest.put(Integer.parseInt(restaurant.getKey()), restaurant.getValue().getName());
+        Map<String, Restaurant> restaurants = getAllRestaurants();
+        for(String code : PersistenceFacade.getInstance().getRestaurantCodesByOwner(owner)) {
+            Restaurant r = restaurants.get(code);
+            if (r != null)
+                myRest.put(Integer.parseInt(code), r.getName());
         }
         if(myRest.isEmpty())
             throw new RestaurantNotFoundException("Nessun ristorante in tuo possesso");
@@ -143,7 +149,18 @@ public  class RestaurantCatalogue {
        MenuEntry me = r.addMenuEntryToMenu(dishType,dishName,price,OIDCreator.getInstance().getNewMenuEntryCode()
                ,restaurantCode);
        PersistenceFacade.getInstance().addMenuEntry(me);
+       updateRestaurantVersion(restaurantCode);
+    }
 
+    /**
+     * Method called when the restaurant's owner removes a dish from the menu of the restaurant.
+     *
+     * @param dishCode the code of the dish
+     * @param restaurantCode the code of the restaurant
+     */
+    public void removeDish(String dishCode, String restaurantCode)throws SQLException{
+        PersistenceFacade.getInstance().removeDish(dishCode, restaurantCode);
+        updateRestaurantVersion(restaurantCode);
     }
 
     public ArrayList<String> getMenuCode(String restCode)throws SQLException{
@@ -157,6 +174,14 @@ public  class RestaurantCatalogue {
     public HashMap<String,String> getRestaurantOverview(String restCode)throws SQLException{
         return getRestaurant(restCode).getOverview();
     }
+    /**
+     * @param restaurantCode the code of a restaurant
+     * @return true if there is a restaurant with that code
+     */
+    public boolean hasRestaurant(String restaurantCode)throws SQLException{
+        return restaurantCode != null && getRestaurant(restaurantCode) != null;
+    }
+
     public String getRestaurantName(String restaurantCode)throws SQLException{
         return getRestaurant(restaurantCode).getName();
     }
@@ -166,6 +191,27 @@ public  class RestaurantCatalogue {
 
     public void setRestaurantOverview(String restaurantCode,RestaurantOverview overview)throws SQLException{
         getRestaurant(restaurantCode).setOverview(overview);
+        updateRestaurantVersion(restaurantCode);
+    }
+
+    /**
+     * The version of a restaurant changes each time its overview (so also its critiques) or its menu change,
+     * so the pages of the restaurant rendered with the same version are still valid.
+     *
+     * @param restaurantCode the code of the restaurant
+     * @return the version of the restaurant
+     */
+    public long getRestaurantVersion(String restaurantCode){
+        AtomicLong version = versions.get(restaurantCode);
+        return version == null ? 0 : version.get();
+    }
+
+    private void updateRestaurantVersion(String restaurantCode){
+        versions.computeIfAbsent(restaurantCode, code -> new AtomicLong()).incrementAndGet();
+    }
+
+    RestaurantOverview getRestaurantOverviewAggregate(String restaurantCode)throws SQLException{
+        return getRestaurant(restaurantCode).getRestaurantOverview();
     }
 
     public double getRestaurantMeanVote(String restaurantCode)throws SQLException{
@@ -0,0 +1,95 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The critiques of a restaurant, kept ordered in each CritiqueOrder so that they can be shown
+ * a page at a time. The cursor of a page is the code of its last critique.
+ */
+public class RestaurantCritiqueFeed {
+
+    private ConcurrentSkipListMap<Integer, Critique> byCode;
+    private EnumMap<CritiqueOrder, ConcurrentSkipListSet<Critique>> byGrade;
+
+    public RestaurantCritiqueFeed() {
+        this.byCode = new ConcurrentSkipListMap<>();
+        this.byGrade = new EnumMap<>(CritiqueOrder.class);
+        for (CritiqueOrder order : CritiqueOrder.values()) {
+            if (order != CritiqueOrder.RECENT)
+                this.byGrade.put(order, new ConcurrentSkipListSet<>(comparator(order)));
+        }
+    }
+
+    /**
+     * Adds a critique to the feed
+     * @param critique the critique
+     */
+    public void add(Critique critique) {
+        byCode.put(critique.getCritiqueCode(), critique);
+        for (ConcurrentSkipListSet<Critique> ordered : byGrade.values())
+            ordered.add(critique);
+    }
+
+    /**
+     * @return all the critiques of the restaurant
+     */
+    public Collection<Critique> getCritiques() {
+        return byCode.values();
+    }
+
+    public boolean isEmpty() {
+        return byCode.isEmpty();
+    }
+
+    /**
+     * Method which returns the critiques which follow the cursor in the order given
+     * @param order the order of the critiques
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of critiques of the page
+     * @return the page, with the views of the critiques
+     */
+    public CritiquePage page(CritiqueOrder order, String cursor, int size) {
+        Iterator<Critique> critiques;
+        Integer last = cursor == null ? null : Integer.valueOf(cursor);
+        if (order == CritiqueOrder.RECENT) {
+            critiques = (last == null ? byCode.descendingMap() : byCode.headMap(last, false).descendingMap())
+                    .values().iterator();
+        } else {
+            NavigableSet<Critique> ordered = byGrade.get(order);
+            Critique lastCritique = last == null ? null : byCode.get(last);
+            critiques = (lastCritique == null ? ordered : ordered.tailSet(lastCritique, false)).iterator();
+        }
+
+        ArrayList<CritiqueView> page = new ArrayList<>();
+        String nextCursor = null;
+        int lastCode = 0;
+        while (critiques.hasNext()) {
+            if (page.size() == size) {
+                nextCursor = Integer.toString(lastCode);
+                break;
+            }
+            Critique c = critiques.next();
+            page.add(c.getView());
+            lastCode = c.getCritiqueCode();
+        }
+        return new CritiquePage(page, nextCursor);
+    }
+
+    /**
+     * @return a comparator which puts first the critiques with the highest grade in the order
+     * and, among the ones with the same grade, the most recent
+     */
+    private static Comparator<Critique> comparator(CritiqueOrder order) {
+        return (c1, c2) -> {
+            int byGrade = Double.compare(order.gradeOf(c2), order.gradeOf(c1));
+            return byGrade != 0 ? byGrade : Integer.compare(c2.getCritiqueCode(), c1.getCritiqueCode());
+        };
+    }
+}
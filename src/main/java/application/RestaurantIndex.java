@@ -0,0 +1,141 @@
+package application;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the names and addresses of the restaurants, used when a new restaurant is registered
+ * to find the ones which are already in the system.
+ * Names and addresses are normalized (case, accents, punctuation and spaces are ignored), so that
+ * "Trattoria da Mario" and "trattoria Da  Mario" are the same restaurant. Restaurants which are only
+ * similar (for example because of a typo) are found through the trigrams of their name and address.
+ */
+public class RestaurantIndex {
+
+    public static final double SIMILARITY_THRESHOLD = 0.8;
+    private static final int GRAM_LENGTH = 3;
+
+    private Map<String, String> byKey;
+    private Map<String, Set<String>> restaurantsByGram;
+    private Map<String, Set<String>> gramsOf;
+
+    public RestaurantIndex() {
+        this.byKey = new HashMap<>();
+        this.restaurantsByGram = new HashMap<>();
+        this.gramsOf = new HashMap<>();
+    }
+
+    /**
+     * Adds a restaurant to the index
+     * @param code the code of the restaurant
+     * @param name the name of the restaurant
+     * @param address the address of the restaurant
+     */
+    public synchronized void add(String code, String name, String address) {
+        String key = key(name, address);
+        if (key.isEmpty())
+            return;
+        byKey.put(key, code);
+        Set<String> grams = grams(key);
+        gramsOf.put(code, grams);
+        for (String gram : grams)
+            restaurantsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(code);
+    }
+
+    /**
+     * @param name the name of a restaurant
+     * @param address the address of a restaurant
+     * @return the code of the restaurant with the same normalized name and address, or null if there is none
+     * (a name and an address without letters and digits are never the same as anything)
+     */
+    public synchronized String findSame(String name, String address) {
+        String key = key(name, address);
+        return key.isEmpty() ? null : byKey.get(key);
+    }
+
+    /**
+     * Method which finds the restaurant whose name and address are the most similar to the ones given,
+     * if their similarity (the Jaccard index of their trigrams) is at least SIMILARITY_THRESHOLD.
+     * Two sets with that similarity share most of their trigrams, so the candidates are only the restaurants
+     * which have at least one of the least common trigrams of the new one: the others are not read.
+     * @param name the name of a restaurant
+     * @param address the address of a restaurant
+     * @return the code of the most similar restaurant, or null if there is none
+     */
+    public synchronized String findSimilar(String name, String address) {
+        Set<String> grams = grams(key(name, address));
+        if (grams.isEmpty())
+            return null;
+        List<String> byRarity = new ArrayList<>(grams);
+        byRarity.sort((g1, g2) -> Integer.compare(postings(g1).size(), postings(g2).size()));
+        int minCommon = (int) Math.ceil(SIMILARITY_THRESHOLD * grams.size());
+        int prefix = grams.size() - minCommon + 1;
+
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < prefix && i < byRarity.size(); i++)
+            candidates.addAll(postings(byRarity.get(i)));
+
+        String best = null;
+        double bestSimilarity = SIMILARITY_THRESHOLD;
+        for (String code : candidates) {
+            double similarity = jaccard(grams, gramsOf.get(code));
+            if (similarity >= bestSimilarity) {
+                best = code;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Method which normalizes a string: accents are removed, letters are lower case,
+     * punctuation is ignored and consecutive spaces become one. Letters and digits of every
+     * alphabet are kept, not only the Latin ones.
+     * @param s the string
+     * @return the normalized string
+     */
+    public static String normalize(String s) {
+        if (s == null)
+            return "";
+        String tmp = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return tmp.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * @return the normalized name and address, or the empty string if both of them are empty
+     */
+    private static String key(String name, String address) {
+        String n = normalize(name);
+        String a = normalize(address);
+        return n.isEmpty() && a.isEmpty() ? "" : n + "|" + a;
+    }
+
+    private static Set<String> grams(String key) {
+        Set<String> grams = new HashSet<>();
+        String padded = " " + key + " ";
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++)
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        return grams;
+    }
+
+    private Set<String> postings(String gram) {
+        Set<String> codes = restaurantsByGram.get(gram);
+        return codes == null ? Collections.<String>emptySet() : codes;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        int common = 0;
+        for (String gram : a) {
+            if (b.contains(gram))
+                common++;
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+}
@@ -1,67 +1,155 @@
 package application;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * A overview of the restaurant which is given by the mean of its critiques.
+ * The grades are kept in an array of primitives indexed by the ordinal of the sections,
+ * so that reading them (for the means, the indexes and the mappers) does not box any value.
  */
 public class RestaurantOverview {
 
     public final static int  MINVOTO = 1;
     public final static int  MAXVOTO = 10;
     public final static CritiqueSections [] CRITIQUE_SECTIONS = CritiqueSections.values();
-    private double mean;
-    protected HashMap<CritiqueSections, Double> sections;
+    private final static int UNKNOWN_COUNT = -1;
+    protected final double [] grades;
+    private double [] sums;
+    private int critiqueCount;
 
     /**
      * Create a new overview.
      */
     public RestaurantOverview (){
-        this.sections = new HashMap<>();
-        for(CritiqueSections type :CRITIQUE_SECTIONS){
-            this.sections.put(type,0.0);
-        }
-        this.mean = 0;
+        this(new double[CRITIQUE_SECTIONS.length], new double[CRITIQUE_SECTIONS.length], 0);
     }
 
-    public RestaurantOverview(double [] grade, double mean){
-        this.sections = new HashMap<>();
-        for(int i =0; i< CRITIQUE_SECTIONS.length;i++){
-            this.sections.put(CRITIQUE_SECTIONS[i],grade[i]);
-        }
-        this.mean = mean;
+    /**
+     * Create an overview from the means saved in the database.
+     * The number of critiques they come from is not known, so computeMean (or restoreCritiqueCount)
+     * has to be called before any critique can be added through addCritique.
+     * @param grades the means of the sections, an array which is kept (not copied) by the overview
+     */
+    public RestaurantOverview(double [] grades){
+        this(grades, new double[CRITIQUE_SECTIONS.length], UNKNOWN_COUNT);
+    }
+
+    /**
+     * Create an overview from the means saved in the database and the number of critiques they come from:
+     * the running sums of the grades are rebuilt from them.
+     * @param grades the means of the sections, an array which is kept (not copied) by the overview
+     * @param critiqueCount the number of critiques of the restaurant
+     */
+    public RestaurantOverview(double [] grades, int critiqueCount){
+        this(grades, null, UNKNOWN_COUNT);
+        restoreCritiqueCount(critiqueCount);
+    }
+
+    /**
+     * Create a copy of an overview, which can be updated without modifying the original one
+     * @param ro the overview to copy
+     */
+    public RestaurantOverview(RestaurantOverview ro){
+        this(ro.grades.clone(), ro.sums == null ? null : ro.sums.clone(), ro.critiqueCount);
+    }
+
+    /**
+     * Constructor used by the subclasses which do not aggregate other critiques, such as Critique:
+     * they pass null as sums, which are allocated only if computeMean or addCritique are called.
+     * @param grades the grades of the sections, indexed by their ordinal
+     * @param sums the running sums of the grades of the critiques
+     * @param critiqueCount the number of critiques summed
+     */
+    protected RestaurantOverview(double [] grades, double [] sums, int critiqueCount){
+        this.grades = grades;
+        this.sums = sums;
+        this.critiqueCount = critiqueCount;
     }
 
     /**
      * It computes the mean of each section
      * @param list of the critiques of a restaurant
      */
-    public void computeMean(HashSet<Critique> list){
+    public void computeMean(Collection<Critique> list){
+        this.sums = new double[CRITIQUE_SECTIONS.length];
+        for (Critique c : list)
+            sumVotes(c);
+        this.critiqueCount = list.size();
+        updateMeans();
+    }
 
-        for (CritiqueSections type : CRITIQUE_SECTIONS){
-            for (Critique c:list ) {
-                double tmp =this.sections.get(type);
-                this.sections.put(type, c.getSections().get(type)+tmp);
-            }
-        }
+    /**
+     * It adds a critique to the overview, updating the means of the sections through their running sums
+     * without reading again the other critiques of the restaurant.
+     * @param c the new critique
+     * @throws IllegalStateException if the overview has been read from the database and computeMean
+     * has not been called yet
+     */
+    public void addCritique(Critique c){
+        if(!hasCritiqueCount())
+            throw new IllegalStateException("The number of critiques of the overview is not known");
+        if (this.sums == null)
+            this.sums = new double[CRITIQUE_SECTIONS.length];
+        sumVotes(c);
+        this.critiqueCount++;
+        updateMeans();
+    }
 
-        this.mean = 0;
-        int nVoti = list.size();
-        for(CritiqueSections type : CRITIQUE_SECTIONS){
-            Double tmp = this.sections.get(type) / nVoti;
-            this.sections.put(type, tmp);
-            this.mean += tmp;
-        }
-        this.mean = this.mean/CritiqueSections.values().length;
+    private void sumVotes(Critique c){
+        for (int i = 0; i < CRITIQUE_SECTIONS.length; i++)
+            this.sums[i] += c.grades[i];
+    }
+
+    private void updateMeans(){
+        for (int i = 0; i < CRITIQUE_SECTIONS.length; i++)
+            this.grades[i] = critiqueCount == 0 ? 0 : this.sums[i] / critiqueCount;
     }
 
     /**
-     *
+     * Method called when the number of critiques of an overview read from the database becomes known,
+     * so that the next critique is added to the running sums (rebuilt from the means) without reading
+     * again the other critiques of the restaurant. It does nothing if the number is already known.
+     * @param critiqueCount the number of critiques of the restaurant
+     */
+    public void restoreCritiqueCount(int critiqueCount){
+        if(hasCritiqueCount())
+            return;
+        this.sums = new double[CRITIQUE_SECTIONS.length];
+        for (int i = 0; i < CRITIQUE_SECTIONS.length; i++)
+            this.sums[i] = this.grades[i] * critiqueCount;
+        this.critiqueCount = critiqueCount;
+    }
+
+    /**
+     * @return true if the number of critiques of the overview is known, so that addCritique can be used
+     */
+    public boolean hasCritiqueCount(){
+        return critiqueCount != UNKNOWN_COUNT;
+    }
+
+    public int getCritiqueCount(){
+        return critiqueCount;
+    }
+
+    /**
+     * @param section a section of the critiques
+     * @return the grade of the section
+     */
+    public double getGrade(CritiqueSections section){
+        return grades[section.ordinal()];
+    }
+
+    /**
+     * Method which builds a map of the grades: it allocates a new map at each call,
+     * so the code which reads many grades should use getGrade instead.
      * @return a map whose keys are the sections and the values are their votes
      */
-    public HashMap<CritiqueSections, Double> getSections() {
+    public Map<CritiqueSections, Double> getSections() {
+        Map<CritiqueSections, Double> sections = new EnumMap<>(CritiqueSections.class);
+        for (int i = 0; i < CRITIQUE_SECTIONS.length; i++)
+            sections.put(CRITIQUE_SECTIONS[i], grades[i]);
         return sections;
     }
 
@@ -70,11 +158,14 @@ public class RestaurantOverview {
      * @return the mean of the votes of the sections
      */
     public double getMean() {
-        return mean;
+        double mean = 0;
+        for (double grade : grades)
+            mean += grade;
+        return mean / grades.length;
     }
 
     @Override
     public String toString() {
-        return this.sections.toString();
+        return getSections().toString();
     }
 }
@@ -0,0 +1,75 @@
+package application;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The distributions of the grades of the critiques of a restaurant: a histogram for each section
+ * and a quantile sketch of the grades given to its dishes. They are updated each time a critique is added,
+ * so they never need to read the critiques again.
+ */
+public class RestaurantStatistics {
+
+    private EnumMap<CritiqueSections, GradeHistogram> sections;
+    private QuantileSketch dishGrades;
+
+    public RestaurantStatistics() {
+        this.sections = new EnumMap<>(CritiqueSections.class);
+        for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS)
+            this.sections.put(section, new GradeHistogram());
+        this.dishGrades = new QuantileSketch();
+    }
+
+    /**
+     * Adds the grades of a critique to the distributions
+     * @param critique the critique
+     */
+    public void add(Critique critique) {
+        for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS)
+            sections.get(section).add(critique.getGrade(section));
+        for (Double grade : critique.getDishes().values())
+            dishGrades.add(grade);
+    }
+
+    public GradeHistogram getHistogram(CritiqueSections section) {
+        return sections.get(section);
+    }
+
+    public QuantileSketch getDishGrades() {
+        return dishGrades;
+    }
+
+    /**
+     * @param section the section
+     * @param grade the minimum grade
+     * @return the number of critiques whose grade of the section is greater or equal to the one given
+     */
+    public int countAtLeast(CritiqueSections section, int grade) {
+        return sections.get(section).countAtLeast(grade);
+    }
+
+    /**
+     * Method called when the statistics of the restaurant have to be sent to restaurant_view.html
+     * @return a map whose keys are the names of the sections and values are the number of critiques
+     * which gave each grade, from MINVOTO to MAXVOTO
+     */
+    public Map<String, int[]> getDistributions() {
+        Map<String, int[]> distributions = new LinkedHashMap<>();
+        for (Map.Entry<CritiqueSections, GradeHistogram> e : sections.entrySet())
+            distributions.put(e.getKey().name(), e.getValue().getCounts());
+        return distributions;
+    }
+
+    /**
+     * @return a map whose keys are the names of the sections (and PIATTI for the dishes)
+     * and values are their median grades
+     */
+    public Map<String, String> getMedians() {
+        Map<String, String> medians = new LinkedHashMap<>();
+        for (Map.Entry<CritiqueSections, GradeHistogram> e : sections.entrySet())
+            medians.put(e.getKey().name(), Integer.toString(e.getValue().getMedian()));
+        medians.put("PIATTI", GradeFormat.format(dishGrades.getMedian(), 1));
+        return medians;
+    }
+}
@@ -3,7 +3,6 @@ package application.controller;
 import application.*;
 import application.restaurant_exception.NoCritiquesException;
 import application.restaurant_exception.RestaurantNotFoundException;
-import persistence.PersistenceFacade;
 
 import java.sql.SQLException;
 import java.util.*;
@@ -47,10 +46,13 @@ public class Home {
      * @param name of the new restaurant
      * @param address of the new restaurant
      * @param owner of the new restaurant
+     * @param confirmedSimilar the code of the similar restaurant which the owner has confirmed to be
+     *                         a different one, or null
      * @return the code of the new restaurant
      */
-    public String addRestaurant(String name, String address,String city, String owner)throws SQLException{
-        return RestaurantCatalogue.getInstance().addRestaurant(name,address,city,owner);
+    public String addRestaurant(String name, String address,String city, String owner, String confirmedSimilar)
+            throws SQLException{
+        return RestaurantCatalogue.getInstance().addRestaurant(name,address,city,owner,confirmedSimilar);
     }
 
     /**
@@ -101,25 +103,27 @@ public class Home {
     }
 
     /**
-     * Method used to select the critiques of a critic
+     * Method used to select a page of the critiques of a critic, from the most recent
      *
      * @param critic, tha author opg the critiques
-     * @return  the Critiques in string format
+     * @param cursor, the cursor of the page returned by the previous call, or null for the first page
+     * @return  the page with the views of the critiques
      * @throws NoCritiquesException
      */
-    public ArrayList<String> myCritique(String critic) throws NoCritiquesException,SQLException {
-        return CritiqueCatalogue.getInstance().getCritiquesByUser(critic);
+    public CritiquePage myCritique(String critic, String cursor) throws NoCritiquesException,SQLException {
+        return CritiqueCatalogue.getInstance().getCritiquesByUser(critic, cursor);
     }
 
     /**
-     * Method which is called to show to an user the overview of a restaurant with its critiques
+     * Method which is called to show to an user the overview of a restaurant with a page of its critiques
      *
-     * @param restCode, the critiques to print
-     * @return critiques, the list of the critiques of the restaurant in String format
+     * @param restCode, the code of the restaurant
+     * @param order, the order of the critiques
+     * @param cursor, the cursor of the page returned by the previous call, or null for the first page
+     * @return the page with the views of the critiques of the restaurant
      */
-    public LinkedList<String> getRestaurantCritiqueToString(String restCode){
-        return CritiqueCatalogue.getInstance().getRestaurantCritiqueToString(
-                                                        CritiqueCatalogue.getInstance().getRestaurantCritics(restCode));
+    public CritiquePage getRestaurantCritiquePage(String restCode, CritiqueOrder order, String cursor){
+        return CritiqueCatalogue.getInstance().getRestaurantCritiquePage(restCode, order, cursor);
     }
 
     /**
@@ -128,20 +132,57 @@ public class Home {
      * @param grade,  the vote used to select the critiques
      * @param restCode code of the restaurant
      * @param section of the critiques
-     * @return only the critiques which verify the condition
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return a page of the critiques which verify the condition
      */
-    public LinkedList<String> getRestCritByVoteSectionToString(int grade, String restCode, CritiqueSections section){
-        return CritiqueCatalogue.getInstance().getRestCritByVoteSectionToString(grade, restCode, section);
+    public CritiquePage getRestCritByVoteSectionPage(int grade, String restCode, CritiqueSections section,
+                                                     String cursor){
+        return CritiqueCatalogue.getInstance().getRestCritByVoteSectionPage(grade, restCode, section, cursor);
+    }
+
+    /**
+     * Method which returns the distributions of the grades of the critiques of a restaurant
+     *
+     * @param restCode, the code of the restaurant
+     * @return the histograms of the sections and the quantiles of the grades of the dishes
+     */
+    public RestaurantStatistics getRestaurantStatistics(String restCode){
+        return CritiqueCatalogue.getInstance().getRestaurantStatistics(restCode);
+    }
+
+    /**
+     * Method which counts the critiques of a restaurant with a grade of a section greater or equal to the one given
+     *
+     * @param restCode, the code of the restaurant
+     * @param section, the section
+     * @param grade, the minimum grade
+     * @return the number of critiques
+     */
+    public int countCritiquesAtLeast(String restCode, CritiqueSections section, int grade){
+        return getRestaurantStatistics(restCode).countAtLeast(section, grade);
+    }
+
+    /**
+     * Method which select the critiques which verify all the conditions of the query
+     *
+     * @param query, the conditions on restaurant, critic and grades
+     * @param cursor, the cursor returned with the previous page, or null for the first page
+     * @return a page of the critiques which verify the conditions
+     */
+    public CritiquePage getCritiquesByQueryPage(CritiqueQuery query, String cursor){
+        return CritiqueCatalogue.getInstance().getCritiquesByQueryPage(query, cursor);
     }
 
     /**
      *Method which select the critiques with a mean >= of the grade
      *
      *  @param grade, the vote used to select the critiques
-     *  @return only the critiques which verify the condition
+     *  @param restCode code of the restaurant
+     *  @param cursor, the cursor returned with the previous page, or null for the first page
+     *  @return a page of the critiques which verify the condition
      */
-    public LinkedList<String> getRestCritByVoteToString(int grade, String restCode){
-        return CritiqueCatalogue.getInstance().getRestCritByVoteToString(grade, restCode);
+    public CritiquePage getRestCritByVotePage(int grade, String restCode, String cursor){
+        return CritiqueCatalogue.getInstance().getRestCritByVotePage(grade, restCode, cursor);
     }
 
     /**
@@ -162,6 +203,10 @@ public class Home {
         return dv;
     }
 
+    public boolean hasRestaurant(String restaurantCode)throws SQLException{
+        return RestaurantCatalogue.getInstance().hasRestaurant(restaurantCode);
+    }
+
     public String getRestaurantName(String restaurantCode)throws SQLException{
         return RestaurantCatalogue.getInstance().getRestaurantName(restaurantCode);
     }
@@ -190,7 +235,7 @@ public class Home {
     }
 
     public void removeDish(String dishCode,String restaurantCode) throws SQLException {
-        PersistenceFacade.getInstance().removeDish(dishCode, restaurantCode);
+        RestaurantCatalogue.getInstance().removeDish(dishCode, restaurantCode);
     }
 
     public LinkedHashMap<String, List<String>> restaurantMenuToString(String restaurantCode) throws SQLException {
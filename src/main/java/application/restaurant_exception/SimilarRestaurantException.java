@@ -0,0 +1,21 @@
+package application.restaurant_exception;
+
+/**
+ * Exception thrown when a new restaurant is very similar to one already registered: it may be the same
+ * restaurant or another branch of it, so the owner has to confirm the registration.
+ */
+public class SimilarRestaurantException extends RuntimeException {
+    private final String similarCode;
+
+    public SimilarRestaurantException(String message, String similarCode) {
+        super(message);
+        this.similarCode = similarCode;
+    }
+
+    /**
+     * @return the code of the similar restaurant
+     */
+    public String getSimilarCode() {
+        return similarCode;
+    }
+}
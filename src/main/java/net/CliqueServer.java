@@ -5,16 +5,30 @@ import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.rythmengine.Rythm;
+import persistence.ConnectionPool;
 
 import javax.servlet.Servlet;
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class CliqueServer {
 
+    private static final String TEMPLATE_HOME = "templates";
+    /**
+     * If this system property is set, the classes compiled from the templates are written in a subdirectory
+     * of that directory named after the fingerprint of the templates, and read from there at the next start:
+     * when a template changes the fingerprint changes too, so they are compiled again.
+     */
+    public static final String COMPILED_TEMPLATES_PROPERTY = "templates.compiled.dir";
+
     private int port;
     private Servlet servlet;
     private Server server;
+    private ScheduledExecutorService stats;
 
     public CliqueServer(int port, Servlet servlet) {
         this.port = port;
@@ -24,14 +38,44 @@ public class CliqueServer {
     public void start() throws Exception {
         server = new Server(port);
         ServletContextHandler handler = new ServletContextHandler();
-        handler.addServlet(new ServletHolder(servlet), "/*");
+        ServletHolder holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        handler.addServlet(holder, "/*");
         addStaticFileServing(handler);
         server.setHandler(handler);
         server.start();
+        startPoolStats();
     }
 
+    /**
+     * Stops the server, then closes the connections to the database once no request is using them
+     */
     public void stop() throws Exception {
-        server.stop();
+        if (stats != null)
+            stats.shutdown();
+        try {
+            server.stop();
+        } finally {
+            ConnectionPool pool = ConnectionPool.getInstance();
+            pool.shutdown();
+            System.out.println(pool);
+        }
+    }
+
+    /**
+     * Prints the statistics of the pool of connections periodically, if ConnectionPool.STATS_INTERVAL_PROPERTY is set
+     */
+    private void startPoolStats() {
+        long interval = Long.getLong(ConnectionPool.STATS_INTERVAL_PROPERTY, 0L);
+        if (interval <= 0)
+            return;
+        stats = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "clique-pool-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        stats.scheduleAtFixedRate(() -> System.out.println(ConnectionPool.getInstance()), interval, interval,
+                TimeUnit.SECONDS);
     }
 
     public CliqueServer withRythm() {
@@ -39,9 +83,32 @@ public class CliqueServer {
         return this;
     }
 
+    /**
+     * Compiles all the templates and renders each of them once, before the server starts to accept requests.
+     * It has to be called after withRythm.
+     * @return the server
+     */
+    public CliqueServer withTemplateWarmUp() {
+        new TemplateWarmUp(TEMPLATE_HOME).run();
+        return this;
+    }
+
     private void initTemplateEngine() {
         Map<String, Object> conf = new HashMap<>();
-        conf.put("home.template", "templates");
+        conf.put("home.template", TEMPLATE_HOME);
+        String compiledDir = System.getProperty(COMPILED_TEMPLATES_PROPERTY);
+        String fingerprint = TemplateWarmUp.fingerprint(TEMPLATE_HOME);
+        if (compiledDir != null && fingerprint != null) {
+            File dir = new File(compiledDir, fingerprint);
+            String[] compiled = dir.list();
+            if (compiled != null && compiled.length > 0) {
+                conf.put("engine.load_precompiled.enabled", true);
+            } else {
+                dir.mkdirs();
+                conf.put("engine.precompile_mode.enabled", true);
+            }
+            conf.put("home.precompiled.dir", dir.getAbsolutePath());
+        }
         Rythm.init(conf);
     }
 
@@ -13,9 +13,17 @@ public class Main {
         int portNumber = 8282;
         if(args.length !=0)
             portNumber = Integer.parseInt(args[0]);
-        new CliqueServer(portNumber, new RythmCliqueServlet())
+        CliqueServer server = new CliqueServer(portNumber, new RythmCliqueServlet())
                 .withRythm()
-                .start();
+                .withTemplateWarmUp();
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }));
         PersistenceFacade.getInstance();
 
     }
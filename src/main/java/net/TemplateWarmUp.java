@@ -0,0 +1,200 @@
+package net;
+
+import org.rythmengine.Rythm;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * The phase of the start of the server in which all the templates are compiled and rendered once,
+ * so that the first request which uses each of them does not wait for Rythm to parse it and compile it.
+ * Each template is rendered with a sample model built from its '@args': empty strings, maps and lists.
+ */
+public class TemplateWarmUp {
+
+    private static final Pattern ARGS = Pattern.compile("@args\\s+(.*)");
+
+    private final String templateHome;
+    private final Map<String, long[]> timings;
+
+    /**
+     * Constructor of the class
+     * @param templateHome the directory of the templates given to Rythm as home.template
+     */
+    public TemplateWarmUp(String templateHome) {
+        this.templateHome = templateHome;
+        this.timings = new LinkedHashMap<>();
+    }
+
+    /**
+     * Compiles and renders all the templates, printing how much time each of them took.
+     * A template which can not be rendered with the sample model is reported and skipped.
+     */
+    public void run() {
+        File dir = findTemplateDir(templateHome);
+        if (dir == null) {
+            System.out.println("Templates not warmed up: directory " + templateHome + " not found");
+            return;
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".html"));
+        if (files == null)
+            return;
+        Arrays.sort(files);
+        long start = System.currentTimeMillis();
+        for (File file : files)
+            warmUp(file);
+        System.out.println("Templates ready in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @return a map whose keys are the names of the templates and values are the milliseconds taken
+     * to compile them and to render them with the sample model
+     */
+    public Map<String, long[]> getTimings() {
+        return timings;
+    }
+
+    private void warmUp(File file) {
+        String name = file.getName();
+        try {
+            long start = System.nanoTime();
+            Rythm.engine().getTemplate(name);
+            long compiled = System.nanoTime();
+            Rythm.render(name, sampleModel(file));
+            long rendered = System.nanoTime();
+            long compileTime = (compiled - start) / 1000000;
+            long renderTime = (rendered - compiled) / 1000000;
+            timings.put(name, new long[]{compileTime, renderTime});
+            System.out.println(name + " compiled in " + compileTime + " ms, rendered in " + renderTime + " ms");
+        } catch (RuntimeException | IOException e) {
+            System.out.println(name + " not warmed up: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the model of a template giving to each argument of its '@args' an empty value of its type
+     * @param file the template
+     * @return the model
+     */
+    private Map<String, Object> sampleModel(File file) throws IOException {
+        Map<String, Object> model = new HashMap<>();
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Matcher matcher = ARGS.matcher(text);
+        if (!matcher.find())
+            return model;
+        for (String arg : splitArgs(matcher.group(1))) {
+            int space = arg.lastIndexOf(' ');
+            if (space < 0)
+                continue;
+            model.put(arg.substring(space + 1), sampleValue(arg.substring(0, space).trim()));
+        }
+        return model;
+    }
+
+    /**
+     * Splits the arguments on the commas which are not inside the brackets of a generic type
+     */
+    private static List<String> splitArgs(String args) {
+        List<String> split = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < args.length(); i++) {
+            char c = args.charAt(i);
+            if (c == '<')
+                depth++;
+            else if (c == '>')
+                depth--;
+            else if (c == ',' && depth == 0) {
+                split.add(args.substring(from, i).trim());
+                from = i + 1;
+            }
+        }
+        split.add(args.substring(from).trim());
+        return split;
+    }
+
+    private static Object sampleValue(String type) {
+        int generic = type.indexOf('<');
+        String raw = generic < 0 ? type : type.substring(0, generic).trim();
+        switch (raw) {
+            case "String":
+                return "";
+            case "Map":
+            case "HashMap":
+            case "LinkedHashMap":
+                return new LinkedHashMap<>();
+            case "List":
+            case "ArrayList":
+                return new ArrayList<>();
+            case "LinkedList":
+                return new LinkedList<>();
+            case "int":
+            case "Integer":
+                return 0;
+            case "double":
+            case "Double":
+                return 0.0;
+            case "boolean":
+            case "Boolean":
+                return false;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Computes a fingerprint of the names and contents of all the templates, which changes whenever
+     * a template is added, removed or modified
+     * @param templateHome the directory of the templates
+     * @return the fingerprint in hexadecimal, or null if the templates can not be read
+     */
+    public static String fingerprint(String templateHome) {
+        File dir = findTemplateDir(templateHome);
+        File[] files = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".html"));
+        if (files == null)
+            return null;
+        Arrays.sort(files);
+        CRC32 crc = new CRC32();
+        try {
+            for (File file : files) {
+                crc.update(file.getName().getBytes(StandardCharsets.UTF_8));
+                crc.update(Files.readAllBytes(file.toPath()));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * The templates are looked for as a directory and then as a resource of the classpath
+     */
+    private static File findTemplateDir(String templateHome) {
+        File dir = new File(templateHome);
+        if (dir.isDirectory())
+            return dir;
+        URL url = TemplateWarmUp.class.getClassLoader().getResource(templateHome);
+        if (url == null || !"file".equals(url.getProtocol()))
+            return null;
+        try {
+            dir = new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        return dir.isDirectory() ? dir : null;
+    }
+}
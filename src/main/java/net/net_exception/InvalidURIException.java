@@ -1,7 +0,0 @@
-package net.net_exception;
-
-public class InvalidURIException extends RuntimeException {
-    public InvalidURIException(String message) {
-        super(message);
-    }
-}
@@ -1,7 +1,6 @@
 package net.request_handler;
 
 import application.controller.Home;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -30,6 +29,6 @@ public abstract class AbstractEditMenu extends AbstractRequestStrategy{
         conf.put("username", username);
         conf.put("rCode",restaurantCode);
         conf.put("rName", Home.getInstance().getRestaurantName(restaurantCode));
-        write(resp,Rythm.render("addMenu.html",conf));
+        render(resp, "addMenu.html", conf);
     }
 }
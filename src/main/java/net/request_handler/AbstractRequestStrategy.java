@@ -4,6 +4,9 @@ import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Abstract class which implements Interface "RequestStrategy" (Pattern strategy).
@@ -19,10 +22,38 @@ public abstract class AbstractRequestStrategy implements RequestStrategy {
      * @throws IOException
      */
      protected void write(HttpServletResponse resp, String message) throws IOException {
-        resp.getWriter().write(message);
+        write(resp, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to response with a page already encoded in UTF-8
+     *
+     * @param resp, the HttpServletResponse uses to answer to the requests of the templates
+     * @param page, the page
+     * @throws IOException
+     */
+    protected void write(HttpServletResponse resp, byte[] page) throws IOException {
+        resp.setContentLength(page.length);
+        resp.getOutputStream().write(page);
+    }
+
+    /**
+     * Method to response with a template, which is rendered directly in the response (see ResponseOutputStream)
+     *
+     * @param resp, the HttpServletResponse uses to answer to the requests of the templates
+     * @param template, the name of the template
+     * @param args, the arguments of the template (a single Map to give them by name)
+     * @throws IOException
+     */
+    protected void render(HttpServletResponse resp, String template, Object... args) throws IOException {
+        ResponseOutputStream out = new ResponseOutputStream(resp);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        Rythm.engine().render(writer, template, args);
+        writer.flush();
+        out.finish();
     }
 
     protected void SQLExcwptionHandler(HttpServletResponse resp) throws IOException{
-            write(resp, Rythm.render("warn.html","Server offline.Ci scusiamo per il disagio"));
+            render(resp, "warn.html","Server offline.Ci scusiamo per il disagio");
     }
 }
@@ -4,7 +4,6 @@ import application.controller.Home;
 import application.restaurant_exception.DishAlreadyInMenuException;
 import net.net_exception.InvalidParameterException;
 import net.net_exception.MissingFormParameterException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -52,7 +51,7 @@ public class AddMenuRequest extends AbstractEditMenu {
             addMenuEntryToRestaurant(req);
             answerRequest(req,resp);
         }catch (MissingFormParameterException | DishAlreadyInMenuException e){
-            write(resp, Rythm.render("warn.html",e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
         }catch (SQLException e){
             e.printStackTrace();
             SQLExcwptionHandler(resp);
@@ -116,7 +115,7 @@ public class AddMenuRequest extends AbstractEditMenu {
             conf.put("myRest", Home.getInstance().getOwnedRestaurant(req.getParameter("username")));
             conf.put("username", req.getParameter("username"));
             conf.put("exception", "false");
-            write(resp, Rythm.render("homeRistoratore.html", conf));
+            render(resp, "homeRistoratore.html", conf);
 
         }
     }
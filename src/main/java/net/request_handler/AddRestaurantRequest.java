@@ -2,7 +2,7 @@ package net.request_handler;
 
 import application.controller.Home;
 import application.restaurant_exception.RestaurantAlreadyExistingException;
-import org.rythmengine.Rythm;
+import application.restaurant_exception.SimilarRestaurantException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -51,7 +51,10 @@ public class AddRestaurantRequest extends AbstractEditMenu{
             sendMenuAddTmpl(req.getParameter("owner"),restaurantCode,resp);
 
         }catch (RestaurantAlreadyExistingException e){
-            write(resp,Rythm.render("warn.html",e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
+        }catch (SimilarRestaurantException e){
+            render(resp, "addRestaurant.html", req.getParameter("owner"), e.getMessage(), req.getParameter("name"),
+                    req.getParameter("city"), req.getParameter("address"), e.getSimilarCode());
         }catch (SQLException e){
             SQLExcwptionHandler(resp);
             e.printStackTrace();
@@ -59,7 +62,9 @@ public class AddRestaurantRequest extends AbstractEditMenu{
     }
 
     /**
-     * Initializes the new restaurant for the owner
+     * Initializes the new restaurant for the owner.
+     * The parameter "similar" is sent back by the form when the owner confirms the registration
+     * of a restaurant similar to another one.
      *
      * @return
      * @throws RestaurantAlreadyExistingException
@@ -70,6 +75,8 @@ public class AddRestaurantRequest extends AbstractEditMenu{
         String address = req.getParameter("address");
         String ownerUsername = req.getParameter("owner");
         String city = req.getParameter("city");
-        return Home.getInstance().addRestaurant(name,address,city,ownerUsername);
+        String similar = req.getParameter("similar");
+        return Home.getInstance().addRestaurant(name,address,city,ownerUsername,
+                similar == null || similar.isEmpty() ? null : similar);
     }
 }
@@ -2,7 +2,6 @@ package net.request_handler;
 
 import application.controller.Home;
 import application.restaurant_exception.RestaurantNotFoundException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -24,7 +23,7 @@ public abstract class AddressHomeRequest extends AbstractRequestStrategy {
      * @throws IOException
      */
     protected void homeCritic(HttpServletResponse resp, String username) throws IOException {
-        write(resp, Rythm.render("homeCritico.html",username));
+        render(resp, "homeCritico.html", username);
     }
 
     /**
@@ -44,7 +43,7 @@ public abstract class AddressHomeRequest extends AbstractRequestStrategy {
             conf.put("exception", "true");
         }
         conf.put("username", username);
-        write(resp, Rythm.render("homeRistoratore.html", conf));
+        render(resp, "homeRistoratore.html", conf);
     }
 
 }
\ No newline at end of file
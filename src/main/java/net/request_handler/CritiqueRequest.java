@@ -3,7 +3,6 @@ package net.request_handler;
 import application.CritiqueSections;
 import application.controller.Home;
 import application.MenuEntry;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -50,7 +49,7 @@ public class CritiqueRequest extends AbstractRequestStrategy {
             writeCritique(req);
             Map<String, Object> param = new HashMap<>();
             param.put("username", req.getParameter("username"));
-            write(resp, Rythm.render("homeCritico.html", param));
+            render(resp, "homeCritico.html", param);
         }catch (SQLException e){
             e.printStackTrace();
             SQLExcwptionHandler(resp);
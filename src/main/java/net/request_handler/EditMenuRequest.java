@@ -2,7 +2,6 @@ package net.request_handler;
 
 import application.controller.Home;
 import net.net_exception.MissingFormParameterException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -55,10 +54,10 @@ public class EditMenuRequest extends AbstractEditMenu {
 
        }catch (SQLException e){
             e.printStackTrace();
-            write(resp,Rythm.render("warn.html","siamo offline,ci scusiamo per il disagio"));
+            render(resp, "warn.html", "siamo offline,ci scusiamo per il disagio");
        }
        catch (MissingFormParameterException e){
-           write(resp,Rythm.render("warn.html",e.getMessage()));
+           render(resp, "warn.html", e.getMessage());
        }
 
     }
@@ -95,7 +94,7 @@ public class EditMenuRequest extends AbstractEditMenu {
         conf.put("restCode",restaurantCode);
         conf.put("username",username);
         conf.put("name",Home.getInstance().getRestaurantName(restaurantCode));
-        write(resp, Rythm.render("editMenu.html",conf));
+        render(resp, "editMenu.html", conf);
     }
 
     /**
@@ -109,7 +108,7 @@ public class EditMenuRequest extends AbstractEditMenu {
         conf.put("myRest", Home.getInstance().getOwnedRestaurant(username));
         conf.put("exception","false");
         conf.put("username", username);
-        write(resp, Rythm.render("homeRistoratore.html", conf));
+        render(resp, "homeRistoratore.html", conf);
     }
 
 
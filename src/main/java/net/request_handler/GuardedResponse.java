@@ -0,0 +1,168 @@
+package net.request_handler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * The response given to a handler in the asynchronous mode of RythmCliqueServlet. When the request is cancelled
+ * (its timeout has expired) everything the handler still writes is dropped, so that the thread which answers the
+ * request in its place owns the response. The writes and the cancellation hold the lock of the wrapper, so no
+ * write is in progress once cancel returns.
+ */
+class GuardedResponse extends HttpServletResponseWrapper {
+
+    private boolean cancelled;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    GuardedResponse(HttpServletResponse resp) {
+        super(resp);
+    }
+
+    /**
+     * Cancels the request: from now on the output of the handler is dropped
+     */
+    synchronized void cancel() {
+        cancelled = true;
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Writes what the handler has left in the buffer of the writer, before the request is completed:
+     * the container flushes only its own buffers
+     */
+    synchronized void finish() {
+        if (writer != null && !cancelled)
+            writer.flush();
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            ServletOutputStream out = getResponse().getOutputStream();
+            stream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!cancelled)
+                            out.write(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!cancelled)
+                            out.write(b, off, len);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!cancelled)
+                            out.flush();
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return out.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    out.setWriteListener(writeListener);
+                }
+            };
+        }
+        return stream;
+    }
+
+    @Override
+    public synchronized PrintWriter getWriter() throws IOException {
+        if (writer == null)
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        return writer;
+    }
+
+    @Override
+    public synchronized void flushBuffer() throws IOException {
+        if (!cancelled)
+            super.flushBuffer();
+    }
+
+    @Override
+    public synchronized void sendError(int sc) throws IOException {
+        if (!cancelled)
+            super.sendError(sc);
+    }
+
+    @Override
+    public synchronized void sendError(int sc, String msg) throws IOException {
+        if (!cancelled)
+            super.sendError(sc, msg);
+    }
+
+    @Override
+    public synchronized void sendRedirect(String location) throws IOException {
+        if (!cancelled)
+            super.sendRedirect(location);
+    }
+
+    @Override
+    public synchronized void setStatus(int sc) {
+        if (!cancelled)
+            super.setStatus(sc);
+    }
+
+    @Override
+    public synchronized void setHeader(String name, String value) {
+        if (!cancelled)
+            super.setHeader(name, value);
+    }
+
+    @Override
+    public synchronized void addHeader(String name, String value) {
+        if (!cancelled)
+            super.addHeader(name, value);
+    }
+
+    @Override
+    public synchronized void setContentType(String type) {
+        if (!cancelled)
+            super.setContentType(type);
+    }
+
+    @Override
+    public synchronized void setContentLength(int len) {
+        if (!cancelled)
+            super.setContentLength(len);
+    }
+
+    @Override
+    public synchronized void setContentLengthLong(long len) {
+        if (!cancelled)
+            super.setContentLengthLong(len);
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (!cancelled)
+            super.reset();
+    }
+
+    @Override
+    public synchronized void resetBuffer() {
+        if (!cancelled)
+            super.resetBuffer();
+    }
+}
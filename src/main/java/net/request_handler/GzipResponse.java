@@ -0,0 +1,104 @@
+package net.request_handler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response whose body is compressed with gzip, used by RythmCliqueServlet when it is enabled and the client
+ * accepts it. The length of the body set by the handlers is ignored, since it is the one before the compression.
+ * The compression starts at the first byte written, so a response without body (such as 304) stays empty.
+ */
+class GzipResponse extends HttpServletResponseWrapper {
+
+    private GZIPOutputStream gzip;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    GzipResponse(HttpServletResponse resp) {
+        super(resp);
+    }
+
+    /**
+     * @param resp a response, which can be wrapped
+     * @return true if its body is compressed by a GzipResponse
+     */
+    static boolean isCompressed(ServletResponse resp) {
+        while (resp instanceof HttpServletResponseWrapper) {
+            if (resp instanceof GzipResponse)
+                return true;
+            resp = ((HttpServletResponseWrapper) resp).getResponse();
+        }
+        return false;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            ServletOutputStream out = getResponse().getOutputStream();
+            stream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    gzip().write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    gzip().write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return out.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    out.setWriteListener(writeListener);
+                }
+            };
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null)
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), StandardCharsets.UTF_8));
+        return writer;
+    }
+
+    /**
+     * Completes the compressed body. It has to be called when the handler has written the whole response.
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if (writer != null)
+            writer.flush();
+        if (gzip != null)
+            gzip.finish();
+    }
+
+    private GZIPOutputStream gzip() throws IOException {
+        if (gzip == null) {
+            ((HttpServletResponse) getResponse()).setHeader("Content-Encoding", "gzip");
+            gzip = new GZIPOutputStream(getResponse().getOutputStream(), ResponseOutputStream.BUFFER_SIZE);
+        }
+        return gzip;
+    }
+}
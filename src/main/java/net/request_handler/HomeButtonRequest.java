@@ -2,7 +2,6 @@ package net.request_handler;
 
 import application.UserType;
 import application.controller.HomeUser;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -45,7 +44,7 @@ public class HomeButtonRequest extends AddressHomeRequest{
     public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         String username = req.getParameter("username");
         if(username == null){
-            write(resp, Rythm.render(("home.html")));
+            render(resp, "home.html");
         }
         try {
             if(UserType.CRITIC == HomeUser.getInstance().getUserType(username))
@@ -1,8 +1,8 @@
 package net.request_handler;
 
+import application.CritiquePage;
 import application.controller.Home;
 import application.restaurant_exception.NoCritiquesException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -57,13 +57,19 @@ public class HomeCriticoRequest extends HomeUserRequest {
     private void postCritiquesView(HttpServletRequest req, HttpServletResponse resp)throws IOException{
         try {
             String tmp = req.getParameter("username");
+            String cursor = req.getParameter("cursor");
+            CritiquePage page = Home.getInstance().myCritique(tmp,
+                    cursor == null || cursor.isEmpty() ? null : cursor);
             Map<String, Object> conf =new HashMap<>();
-            conf.put("critique", Home.getInstance().myCritique(tmp));
+            conf.put("critique", page.getCritiques());
             conf.put("username", tmp);
-            write(resp,Rythm.render("myCritiques.html", conf));
+            conf.put("cursor", page.hasNext() ? page.getNextCursor() : "");
+            render(resp, "myCritiques.html", conf);
         }
         catch (NoCritiquesException e){
-            write(resp, Rythm.render("warn.html", e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
+        }catch (NumberFormatException e){
+            render(resp, "warn.html", "Pagina non valida");
         }catch (SQLException e){
             e.printStackTrace();
             SQLExcwptionHandler(resp);
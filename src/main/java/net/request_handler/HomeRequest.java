@@ -3,7 +3,6 @@ package net.request_handler;
 import application.controller.HomeUser;
 import persistence.InvalidUsernameException;
 import application.UserType;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -33,7 +32,7 @@ public class HomeRequest extends AddressHomeRequest{
     }
     @Override
     public void doGet(HttpServletResponse resp) throws IOException {
-        write(resp, Rythm.render(("home.html")));
+        render(resp, "home.html");
     }
 
     /**
@@ -73,7 +72,7 @@ public class HomeRequest extends AddressHomeRequest{
                 super.homeRestaurantOwner(resp, username);
         }
         catch (InvalidUsernameException e) {
-            write(resp, Rythm.render("warn.html", e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
         }
 
     }
@@ -1,7 +1,6 @@
 package net.request_handler;
 
 import net.net_exception.MissingFormParameterException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,7 +42,7 @@ public class HomeRistoratoreRequest extends HomeUserRequest {
         if (req.getParameter("switch").equals("discover"))
             super.doPost(req, resp);
         else if(req.getParameter("switch").equals("add"))
-            write(resp, Rythm.render("addRestaurant.html",req.getParameter("username")));
+            render(resp, "addRestaurant.html", req.getParameter("username"), "", "", "", "", "");
         else if(req.getParameter("switch").equals("viewMyRest"))
             myRest(req,resp);
     }
@@ -58,9 +57,9 @@ public class HomeRistoratoreRequest extends HomeUserRequest {
             String restCode = req.getParameter("restaurant");
             checkParam(restCode);
             String username = req.getParameter("username");
-            write(resp, Rythm.render("myRestaurantAction.html", restCode, username));
+            render(resp, "myRestaurantAction.html", restCode, username);
         }catch (MissingFormParameterException e){
-            write(resp,Rythm.render("warn.html",e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
         }
     }
 
@@ -1,7 +1,6 @@
 package net.request_handler;
 
 import application.controller.Home;
-import org.rythmengine.Rythm;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -45,7 +44,7 @@ public abstract class HomeUserRequest extends AbstractRequestStrategy {
         param.put("restaurant", restaurant);
         param.put("sw", tmp);
         param.put("username", username);
-        write(resp, Rythm.render("list.html", param));
+        render(resp, "list.html", param);
     }
 
     @Override
@@ -1,10 +1,10 @@
 package net.request_handler;
 
+import application.CritiqueOrder;
 import application.controller.Home;
 import application.restaurant_exception.EmptyMenuException;
 import application.restaurant_exception.NoCritiquesException;
 import net.net_exception.MissingFormParameterException;
-import org.rythmengine.Rythm;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -52,14 +52,11 @@ public class ListRequest extends OverviewRequest {
             if(action.equals("write"))
                 sendCritiqueModule(restaurantCode,resp,username);
             else
-                sendRestaurantOverview(restaurantCode,resp, username,
-                        Home.getInstance().getRestaurantCritiqueToString(restaurantCode));
+                sendRestaurantPage(req, resp, restaurantCode, username, CritiqueOrder.RECENT, null);
         }catch (MissingFormParameterException e){
-            write(resp,Rythm.render("warn.html",e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
         }catch (NoCritiquesException e){
-            HashMap<String,Object> conf = new HashMap<>();
-            NoCritiquesExceptionhandler(req.getParameter("restaurant"),conf,resp,
-                    req.getParameter("username"));
+            NoCritiquesExceptionhandler(req.getParameter("restaurant"),resp,req.getParameter("username"));
         }
     }
 
@@ -78,9 +75,9 @@ public class ListRequest extends OverviewRequest {
             conf.put("piatti", piatti);
             conf.put("restCode", restaurantCode);
             conf.put("username", username);
-            write(resp, Rythm.render("critique.html", conf));
+            render(resp, "critique.html", conf);
         }catch(EmptyMenuException e){
-            write(resp,Rythm.render("warn.html", e.getMessage()));
+            render(resp, "warn.html", e.getMessage());
         }catch (SQLException e){
             e.printStackTrace();
             SQLExcwptionHandler(resp);
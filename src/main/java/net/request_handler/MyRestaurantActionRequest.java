@@ -1,8 +1,8 @@
 package net.request_handler;
 
+import application.CritiqueOrder;
 import application.controller.Home;
 import application.restaurant_exception.NoCritiquesException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,19 +43,17 @@ public class MyRestaurantActionRequest extends OverviewRequest {
     public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try{
             if (req.getParameter("switch").equals("discover"))
-                sendRestaurantOverview(req.getParameter("restaurant"), resp, req.getParameter("username"),
-                        Home.getInstance().getRestaurantCritiqueToString(req.getParameter("restaurant")));
+                sendRestaurantPage(req, resp, req.getParameter("restaurant"), req.getParameter("username"),
+                        CritiqueOrder.RECENT, null);
 
             else if(req.getParameter("switch").equals("modifyMenu"))
                 sendEditMenuTmpl(req,resp);
         }catch (NoCritiquesException e){
-            HashMap<String,Object> conf = new HashMap<>();
-            NoCritiquesExceptionhandler(req.getParameter("restaurant"),conf,resp,
-                    req.getParameter("username"));
+            NoCritiquesExceptionhandler(req.getParameter("restaurant"),resp,req.getParameter("username"));
         }catch (SQLException e){
             e.printStackTrace();
             System.out.println(e.getMessage());
-            write(resp,Rythm.render("warn.html"));
+            render(resp, "warn.html");
         }
     }
 
@@ -74,6 +72,6 @@ public class MyRestaurantActionRequest extends OverviewRequest {
         conf.put("restCode",restaurantCode);
         conf.put("username",req.getParameter("username"));
         conf.put("name",Home.getInstance().getRestaurantName(restaurantCode));
-        write(resp, Rythm.render("editMenu.html",conf));
+        render(resp, "editMenu.html", conf);
     }
 }
@@ -1,13 +1,26 @@
 package net.request_handler;
 
+import application.CritiqueOrder;
+import application.CritiquePage;
+import application.CritiqueView;
+import application.GradeFormat;
 import application.RestaurantCatalogue;
+import application.RestaurantStatistics;
 import application.controller.Home;
 import application.restaurant_exception.NoCritiquesException;
 import org.rythmengine.Rythm;
+import org.rythmengine.utils.S;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,53 +33,212 @@ import java.util.Map;
 public abstract class OverviewRequest extends AbstractRequestStrategy {
 
     /**
-     * Method which get the information to show the page of a restaurant, with its overview and critiques
+     * Method which sends the page of a restaurant with a page of the critiques selected by a filter of the user.
+     * The page is not cached; the button which asks for the next page sends again the parameters of the filter.
      *
      * @param restaurantCode, the code of the restaurant which the user want visualize
      * @param resp, the HttpServletResponse to answer to the requests of the templates
      * @param username, the username of the user who is making the request
-     * @param critList, list of critiques that belong to the restaurant
+     * @param critiques, the page of the critiques selected
+     * @param filter, the parameters of the filter (with its 'action'), in the order of the form
      * @throws IOException
      */
-    protected void sendRestaurantOverview(String restaurantCode, HttpServletResponse resp, String username,
-                                          List<String> critList)throws IOException {
-        Map<String, Object> conf = new HashMap<>();
+    protected void sendFilteredPage(String restaurantCode, HttpServletResponse resp, String username,
+                                    CritiquePage critiques, Map<String, String> filter) throws IOException {
         try {
-
-            Map<String, String> restaurantOverview = RestaurantCatalogue.getInstance()
-                    .getRestaurantOverview(restaurantCode);
-            conf.put("restaurant", restaurantCode);
-            conf.put("name", Home.getInstance().getRestaurantName(restaurantCode));
-            conf.put("address", Home.getInstance().getRestaurantAddress(restaurantCode));
-            conf.put("overview", restaurantOverview);
-            conf.put("critiques", critList);
-            conf.put("username", username);
-            conf.put("votoMedio", String.format("%.2f",
-                    (Home.getInstance().getRestaurantMeanVote(restaurantCode))).replace(",","."));
-            write(resp, Rythm.render("restaurantView.html", conf));
+            if (!Home.getInstance().hasRestaurant(restaurantCode)) {
+                sendUnknownRestaurant(resp);
+                return;
+            }
+            write(resp, RestaurantPageCache.split(renderPage(restaurantOverviewModel(restaurantCode,
+                    critiques.getCritiques(), CritiqueOrder.RECENT,
+                    critiques.hasNext() ? critiques.getNextCursor() : "", filter))), username);
         }catch (SQLException e){
             e.printStackTrace();
-            System.out.println("SWLException: "+e.getMessage());
+            SQLExcwptionHandler(resp);
         }catch (NoCritiquesException e){
-            NoCritiquesExceptionhandler(restaurantCode,conf,resp,username);
+            NoCritiquesExceptionhandler(restaurantCode,resp,username);
         }
     }
 
+    /**
+     * Method which sends the page of a restaurant with a page of its critiques, in the order given and starting
+     * after the cursor. The page (or the one of a restaurant which has no critiques) is rendered only if it is
+     * not in the RestaurantPageCache with the current version of the restaurant, and the fields of the user are
+     * written in it when it is sent.
+     * If the restaurant does not exist the response is 404 (Not Found).
+     *
+     * @param req, the HttpServletRequest
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @param restaurantCode, the code of the restaurant which the user want visualize
+     * @param username, the username of the user who is making the request
+     * @param order, the order of the critiques
+     * @param cursor, the cursor returned with the previous page of critiques, or null for the first page
+     * @throws IOException
+     */
+    protected void sendRestaurantPage(HttpServletRequest req, HttpServletResponse resp, String restaurantCode,
+                                      String username, CritiqueOrder order, String cursor) throws IOException {
+        long version = RestaurantCatalogue.getInstance().getRestaurantVersion(restaurantCode);
+        String key = RestaurantPageCache.key(restaurantCode, order.name(), cursor);
+        RestaurantPageCache.Page page = RestaurantPageCache.getInstance().get(key, version);
+        if (page == null) {
+            try {
+                if (!Home.getInstance().hasRestaurant(restaurantCode)) {
+                    sendUnknownRestaurant(resp);
+                    return;
+                }
+                byte[] body;
+                try {
+                    CritiquePage critiques = Home.getInstance().getRestaurantCritiquePage(restaurantCode, order,
+                            cursor);
+                    body = renderPage(restaurantOverviewModel(restaurantCode, critiques.getCritiques(), order,
+                            critiques.hasNext() ? critiques.getNextCursor() : "", Collections.emptyMap()));
+                } catch (NoCritiquesException e) {
+                    body = renderNoCritiquesPage(restaurantCode);
+                }
+                page = RestaurantPageCache.getInstance().put(key, version, body);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                SQLExcwptionHandler(resp);
+                return;
+            }
+        }
+        sendPage(req, resp, page, username);
+    }
+
+    /**
+     * Method which sends a page of the RestaurantPageCache. The pages reached through GET links carry their
+     * entity tag, so that a request whose header If-None-Match has the tag of the page is answered with
+     * 304 (Not Modified) and no body; the responses to the forms sent through POST are always written.
+     *
+     * @param req, the HttpServletRequest
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @param page, the page
+     * @param username, the username of the user who is making the request
+     * @throws IOException
+     */
+    static void sendPage(HttpServletRequest req, HttpServletResponse resp, RestaurantPageCache.Page page,
+                         String username) throws IOException {
+        if ("GET".equals(req.getMethod())) {
+            boolean compressed = GzipResponse.isCompressed(resp);
+            resp.setHeader("ETag", page.getEtag(compressed));
+            resp.setHeader("Cache-Control", "no-cache");
+            resp.setHeader("Vary", "Accept-Encoding");
+            if (page.matches(req.getHeader("If-None-Match"), compressed)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        write(resp, page.getParts(), username);
+    }
+
+    /**
+     * Method which renders the page of a restaurant without the fields of the user, which are marked
+     * with RestaurantPageCache.USER_MARKER
+     *
+     * @param model, the arguments of the template
+     * @return the page encoded in UTF-8
+     * @throws IOException
+     */
+    private byte[] renderPage(Map<String, Object> model) throws IOException {
+        return renderTemplate("restaurantView.html", model);
+    }
+
+    /**
+     * Method which renders the page of a restaurant which has no critiques, without the fields of the user
+     *
+     * @param restaurantCode, the code of the restaurant
+     * @return the page encoded in UTF-8
+     * @throws SQLException
+     * @throws IOException
+     */
+    private byte[] renderNoCritiquesPage(String restaurantCode) throws SQLException, IOException {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put("name", Home.getInstance().getRestaurantName(restaurantCode));
+        conf.put("address", Home.getInstance().getRestaurantAddress(restaurantCode));
+        return renderTemplate("restaurantViewException.html", conf);
+    }
+
+    private static byte[] renderTemplate(String template, Map<String, Object> model) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(ResponseOutputStream.BUFFER_SIZE);
+        Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+        Rythm.engine().render(writer, template, model);
+        writer.flush();
+        return body.toByteArray();
+    }
+
+    /**
+     * Method which sends a page divided by RestaurantPageCache.split, writing the fields of the user
+     * between its parts
+     *
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @param parts, the parts of the page
+     * @param username, the username of the user who is making the request
+     * @throws IOException
+     */
+    private static void write(HttpServletResponse resp, byte[][] parts, String username) throws IOException {
+        byte[] userField = ("<input type=\"hidden\" name=\"username\" value=\""
+                + S.escapeHtml(username == null ? "" : username) + "\">").getBytes(StandardCharsets.UTF_8);
+        long length = (long) userField.length * (parts.length - 1);
+        for (byte[] part : parts)
+            length += part.length;
+        resp.setContentLengthLong(length);
+        OutputStream out = resp.getOutputStream();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0)
+                out.write(userField);
+            out.write(parts[i]);
+        }
+    }
+
+    /**
+     * Method which answers with 404 (Not Found) to the request of a restaurant which does not exist
+     *
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @throws IOException
+     */
+    protected void sendUnknownRestaurant(HttpServletResponse resp) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        render(resp, "warn.html", "Ristorante non trovato");
+    }
+
+    private Map<String, Object> restaurantOverviewModel(String restaurantCode, List<CritiqueView> critList,
+                                                        CritiqueOrder order, String cursor,
+                                                        Map<String, String> filter) throws SQLException {
+        Map<String, Object> conf = new HashMap<>();
+        Map<String, String> restaurantOverview = RestaurantCatalogue.getInstance()
+                .getRestaurantOverview(restaurantCode);
+        conf.put("restaurant", restaurantCode);
+        conf.put("name", Home.getInstance().getRestaurantName(restaurantCode));
+        conf.put("address", Home.getInstance().getRestaurantAddress(restaurantCode));
+        conf.put("overview", restaurantOverview);
+        conf.put("critiques", critList);
+        conf.put("order", order.name());
+        conf.put("cursor", cursor);
+        conf.put("filter", filter);
+        RestaurantStatistics statistics = Home.getInstance().getRestaurantStatistics(restaurantCode);
+        conf.put("medians", statistics.getMedians());
+        conf.put("distributions", statistics.getDistributions());
+        conf.put("votoMedio", GradeFormat.format(Home.getInstance().getRestaurantMeanVote(restaurantCode)));
+        return conf;
+    }
+
     /**
      * Method which manages the 'NoCritiquesException' (if a restaurant has no critiques)
      *
      * @param restaurantCode, the code of the restaurant of the critiques
-     * @param conf, the HashMap used to pass the parameter to 'Rythme.render'
      * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @param username, the username of the user who is making the request
      * @throws IOException
      */
-    protected void NoCritiquesExceptionhandler(String restaurantCode,Map<String, Object> conf,HttpServletResponse resp,
+    protected void NoCritiquesExceptionhandler(String restaurantCode, HttpServletResponse resp,
                                                String username) throws IOException {
         try {
-            conf.put("username",username);
-            conf.put("name", Home.getInstance().getRestaurantName(restaurantCode));
-            conf.put("address", Home.getInstance().getRestaurantAddress(restaurantCode));
-            write(resp, Rythm.render("restaurantViewException.html", conf));
+            if (!Home.getInstance().hasRestaurant(restaurantCode)) {
+                sendUnknownRestaurant(resp);
+                return;
+            }
+            write(resp, RestaurantPageCache.split(renderNoCritiquesPage(restaurantCode)), username);
         }catch (SQLException e){
             e.printStackTrace();
             SQLExcwptionHandler(resp);
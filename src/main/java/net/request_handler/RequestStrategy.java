@@ -17,6 +17,18 @@ public interface RequestStrategy {
       */
      void doGet(HttpServletResponse resp) throws IOException;
 
+     /**
+      * Sends the correct response to a GET request whose parameters (or headers) are needed.
+      * By default the request is ignored and doGet(resp) is called.
+      *
+      * @param req, the HttpServletRequest to get parameter
+      * @param resp, the HttpServletResponse to answer to the requests of the template
+      * @throws IOException
+      */
+     default void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+          doGet(resp);
+     }
+
      /**
       * Get the parameter in the form of the template and sends the correct answer to the request of the template
       *
@@ -0,0 +1,73 @@
+package net.request_handler;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The stream in which a page is rendered directly, without building it as a String.
+ * The first BUFFER_SIZE bytes are kept in a buffer owned by the thread (so it is reused by all its requests):
+ * if the page ends within the buffer it is sent with its Content-Length, otherwise the buffer is sent as soon
+ * as it is full and the rest of the page follows it in chunks.
+ */
+class ResponseOutputStream extends OutputStream {
+
+    static final int BUFFER_SIZE = 32 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final HttpServletResponse resp;
+    private final byte[] buffer;
+    private int count;
+    private OutputStream out;
+
+    /**
+     * Constructor of the class
+     * @param resp the response in which the page is written
+     */
+    ResponseOutputStream(HttpServletResponse resp) {
+        this.resp = resp;
+        this.buffer = BUFFERS.get();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out == null && count == buffer.length)
+            startStreaming();
+        if (out != null)
+            out.write(b);
+        else
+            buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null && count + len > buffer.length)
+            startStreaming();
+        if (out != null) {
+            out.write(b, off, len);
+        } else {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Sends what is left of the page. It has to be called once, when the page is complete.
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if (out == null) {
+            resp.setContentLength(count);
+            resp.getOutputStream().write(buffer, 0, count);
+            count = 0;
+        } else {
+            out.flush();
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        out = resp.getOutputStream();
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+}
@@ -0,0 +1,162 @@
+package net.request_handler;
+
+import persistence.cache.BoundedCache;
+import persistence.cache.CacheStats;
+import persistence.cache.MapperCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A cache of the pages of the restaurants already rendered, which are valid as long as the version of
+ * their restaurant (see RestaurantCatalogue.getRestaurantVersion) does not change.
+ * The pages are kept by restaurant, order and cursor, and they are shared by all the users: the fields which
+ * depend on the user are marked in the page with USER_MARKER, and they are written when the page is sent.
+ * Its size can be set through the system properties of BoundedCache with the name "pages".
+ * It is implemented through Singleton pattern implementation.
+ */
+public class RestaurantPageCache {
+    /**
+     * The mark of the fields of the user in a rendered page. It cannot be written by the users, since
+     * the text which they write is escaped in the pages.
+     */
+    public static final String USER_MARKER = "<!--username-->";
+    private static final byte[] USER_MARKER_BYTES = USER_MARKER.getBytes(StandardCharsets.UTF_8);
+    private static final long DEFAULT_CACHE_SIZE = 1000;
+    private static RestaurantPageCache instance = null;
+
+    private MapperCache<String, Page> pages;
+
+    /**
+     * A rendered page, encoded in UTF-8 and divided where the fields of the user are written,
+     * with the version of the restaurant it shows and its entity tag
+     */
+    public static final class Page {
+        private final long version;
+        private final byte[][] parts;
+        private final String tag;
+
+        private Page(long version, byte[][] parts) {
+            this.version = version;
+            this.parts = parts;
+            this.tag = Long.toHexString(version) + "-" + Integer.toHexString(Arrays.deepHashCode(parts));
+        }
+
+        /**
+         * @return the parts of the page, between which the fields of the user are written
+         */
+        public byte[][] getParts() {
+            return parts;
+        }
+
+        /**
+         * The tag depends on the encoding of the body, since the compressed and the plain page are different
+         * representations. The user is a parameter of the URL of the page, so it is not part of the tag.
+         * @param compressed true if the body is compressed with gzip
+         * @return the entity tag of the page
+         */
+        public String getEtag(boolean compressed) {
+            return "\"" + tag + (compressed ? "-gzip" : "") + "\"";
+        }
+
+        /**
+         * @param ifNoneMatch the value of the header If-None-Match of the request (it can be null)
+         * @param compressed true if the body is compressed with gzip
+         * @return true if the client already has this page
+         */
+        public boolean matches(String ifNoneMatch, boolean compressed) {
+            if (ifNoneMatch == null)
+                return false;
+            String etag = getEtag(compressed);
+            for (String t : ifNoneMatch.split(",")) {
+                t = t.trim();
+                if (t.startsWith("W/"))
+                    t = t.substring(2);
+                if (t.equals("*") || t.equals(etag))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private RestaurantPageCache() {
+        this.pages = BoundedCache.fromSystemProperties("pages", DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 'Pattern Singleton Implementation'
+     *
+     * If class has not been already created it instantiates the class and returns the instance
+     * @return instance(RestaurantPageCache)
+     */
+    public static synchronized RestaurantPageCache getInstance() {
+        if (instance == null)
+            instance = new RestaurantPageCache();
+        return instance;
+    }
+
+    /**
+     * @param restaurantCode the code of the restaurant
+     * @param order the order of the critiques
+     * @param cursor the cursor of the page of critiques (null for the first one)
+     * @return the key of the page
+     */
+    public static String key(String restaurantCode, String order, String cursor) {
+        return restaurantCode + "|" + order + "|" + (cursor == null ? "" : cursor);
+    }
+
+    /**
+     * @param body a rendered page, encoded in UTF-8
+     * @return the parts of the page between the marks of the fields of the user
+     */
+    public static byte[][] split(byte[] body) {
+        List<byte[]> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= body.length - USER_MARKER_BYTES.length; i++) {
+            if (markerAt(body, i)) {
+                parts.add(Arrays.copyOfRange(body, start, i));
+                start = i + USER_MARKER_BYTES.length;
+                i = start - 1;
+            }
+        }
+        parts.add(Arrays.copyOfRange(body, start, body.length));
+        return parts.toArray(new byte[0][]);
+    }
+
+    private static boolean markerAt(byte[] body, int position) {
+        for (int i = 0; i < USER_MARKER_BYTES.length; i++) {
+            if (body[position + i] != USER_MARKER_BYTES[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param key the key of the page
+     * @param version the current version of the restaurant
+     * @return the page rendered with that version, or null if there is none
+     */
+    public Page get(String key, long version) {
+        Page page = pages.get(key);
+        return page == null || page.version != version ? null : page;
+    }
+
+    /**
+     * Adds a page to the cache
+     * @param key the key of the page
+     * @param version the version of the restaurant read before the page was rendered
+     * @param body the page encoded in UTF-8
+     * @return the page
+     */
+    public Page put(String key, long version, byte[] body) {
+        Page page = new Page(version, split(body));
+        pages.put(key, page);
+        return page;
+    }
+
+    public CacheStats getStats() {
+        return pages.getStats();
+    }
+}
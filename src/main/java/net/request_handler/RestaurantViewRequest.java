@@ -1,13 +1,20 @@
 package net.request_handler;
 
+import application.CritiqueOrder;
+import application.CritiquePage;
+import application.CritiqueView;
+import application.CritiqueQuery;
 import application.CritiqueSections;
+import application.RestaurantOverview;
 import application.controller.Home;
 import application.restaurant_exception.NoCritiquesException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  *Singleton class (concreteStrategy)
@@ -20,6 +27,7 @@ public class RestaurantViewRequest extends OverviewRequest {
     private final String FILTER;
     private final String RESET;
     private final String SECTION;
+    private final String QUERY;
     /**
      * 'Pattern Singleton Implementation'
      *
@@ -30,6 +38,7 @@ public class RestaurantViewRequest extends OverviewRequest {
         this.FILTER = "filter";
         this.RESET = "reset";
         this.SECTION = "mean";
+        this.QUERY = "query";
     }
 
     public static RestaurantViewRequest getInstance(){
@@ -38,78 +47,197 @@ public class RestaurantViewRequest extends OverviewRequest {
         return instance;
     }
 
+    /**
+     * Sends a page of the critiques of the restaurant ('restaurant', 'username', 'order' and 'cursor' as in the
+     * form of the page), so that the page of a restaurant can be linked and validated through its ETag.
+     * The list of the restaurants, the page of a restaurant of its owner and the forms which change the order
+     * or the page of the critiques reach it through GET, as the next pages of the critiques selected by a filter.
+     *
+     * @param req, HttpServletRequest request
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @throws IOException
+     */
+    @Override
+    public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        sendRequestedPage(req, resp);
+    }
+
     @Override
     public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        super.sendRestaurantOverview(req.getParameter("restaurant"), resp, req.getParameter("username"),
-                switchCritiques(req));
+        sendRequestedPage(req, resp);
     }
 
     /**
-     * Using the parameter in the form return the correct critiques required by the user
+     * Sends the page of the restaurant asked by the parameter 'action': a page of the critiques selected by a
+     * filter ('filter' or 'query'), otherwise a page of all the critiques. The parameters of the forms are
+     * checked before anything is sent: if one of them is not valid the response is 400 (Bad Request).
      *
      * @param req, HttpServletRequest request
-     * @return  the critiques(in String format) which the user wants
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @throws IOException
      */
-    private LinkedList<String> switchCritiques(HttpServletRequest req){
-        if(req.getParameter("action").equals(FILTER)){
-            if (req.getParameter("section").equals(SECTION)){
-                return critiquesByVote(req);
-            }
-            else
-            return critiquesByVoteSection(req);
+    private void sendRequestedPage(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if(req.getParameter("restaurant") == null) {
+            render(resp, "warn.html", "Scegliere un ristorante per continuare");
+            return;
         }
+        String action = req.getParameter("action");
+        if(FILTER.equals(action) || QUERY.equals(action))
+            sendFilteredCritiques(req, resp, action);
         else
-            return allCritiques(req);
+            sendCritiquePage(req, resp);
     }
 
     /**
-     * Method which returns the critiques(in string format) divided for vote of a section
+     * Method which sends a page of the critiques selected by the section filter ('section' and 'grade')
+     * or by the advanced query ('grade_SECTION', 'grade_mean' and 'critic'), the most recent first
      *
-     * @return only the critiques which verify the condition
+     * @param req, HttpServletRequest request
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @param action, FILTER or QUERY
+     * @throws IOException
      */
-    private LinkedList<String> critiquesByVoteSection(HttpServletRequest req){
+    private void sendFilteredCritiques(HttpServletRequest req, HttpServletResponse resp, String action)
+            throws IOException {
+        String restaurant = req.getParameter("restaurant");
+        Map<String, String> filter = new LinkedHashMap<>();
+        filter.put("action", action);
+        CritiqueQuery query = new CritiqueQuery().ofRestaurant(restaurant);
+        String cursor;
+        try {
+            if(action.equals(QUERY))
+                readQuery(req, query, filter);
+            else
+                readFilter(req, query, filter);
+            cursor = readCursor(req);
+        }
+        catch (IllegalArgumentException e){
+            sendBadRequest(resp);
+            return;
+        }
+        CritiquePage page;
         try {
-            return Home.getInstance().getRestCritByVoteSectionToString(Integer.parseInt(req.getParameter("grade")),
-                    req.getParameter("restaurant"), CritiqueSections.valueOf(req.getParameter("section")));
+            page = action.equals(QUERY) ? Home.getInstance().getCritiquesByQueryPage(query, cursor)
+                    : filteredPage(query, restaurant, cursor);
         }
         catch (NoCritiquesException e){
-            LinkedList<String> exc = new LinkedList<>();
-            exc.add(e.getMessage());
-            return exc;
+            ArrayList<CritiqueView> exc = new ArrayList<>();
+            exc.add(CritiqueView.message(e.getMessage()));
+            page = new CritiquePage(exc, null);
         }
+        super.sendFilteredPage(restaurant, resp, req.getParameter("username"), page, filter);
     }
 
     /**
-     * Method which return the critiques(in string format) divided for mean
+     * Method which returns a page of the critiques selected by the section filter: by mean or by the grade
+     * of a section
+     */
+    private CritiquePage filteredPage(CritiqueQuery query, String restaurant, String cursor){
+        if (query.getMinMean() != null)
+            return Home.getInstance().getRestCritByVotePage(query.getMinMean(), restaurant, cursor);
+        Map.Entry<CritiqueSections, Integer> grade = query.getMinGrades().entrySet().iterator().next();
+        return Home.getInstance().getRestCritByVoteSectionPage(grade.getValue(), restaurant, grade.getKey(), cursor);
+    }
+
+    /**
+     * Method which reads the section filter: a minimum grade ('grade') for the mean or for a section ('section')
      *
-     * @return only the critiques which verify the condition
+     * @throws IllegalArgumentException if the section or the grade are not valid
      */
-    private LinkedList<String> critiquesByVote(HttpServletRequest req) {
-        try {
-            return Home.getInstance().getRestCritByVoteToString(Integer.parseInt(req.getParameter("grade")),
-                    req.getParameter("restaurant"));
+    private void readFilter(HttpServletRequest req, CritiqueQuery query, Map<String, String> filter){
+        String section = req.getParameter("section");
+        int grade = parseGrade(req.getParameter("grade"));
+        if (SECTION.equals(section))
+            query.withMinMean(grade);
+        else
+            query.withMinGrade(CritiqueSections.valueOf(String.valueOf(section)), grade);
+        filter.put("section", section);
+        filter.put("grade", Integer.toString(grade));
+    }
+
+    /**
+     * Method which reads the conditions of the advanced query:
+     * a minimum grade for each section ('grade_SECTION') and for the mean ('grade_mean'), and the critic.
+     * The conditions left empty are ignored.
+     *
+     * @throws IllegalArgumentException if a grade is not valid
+     */
+    private void readQuery(HttpServletRequest req, CritiqueQuery query, Map<String, String> filter){
+        String mean = req.getParameter("grade_" + SECTION);
+        if (mean != null && !mean.isEmpty()) {
+            query.withMinMean(parseGrade(mean));
+            filter.put("grade_" + SECTION, mean);
         }
-        catch (NoCritiquesException e){
-            LinkedList<String> exc = new LinkedList<>();
-            exc.add(e.getMessage());
-            return exc;
+        for (CritiqueSections section : CritiqueSections.values()) {
+            String grade = req.getParameter("grade_" + section.name());
+            if (grade != null && !grade.isEmpty()) {
+                query.withMinGrade(section, parseGrade(grade));
+                filter.put("grade_" + section.name(), grade);
+            }
+        }
+        String critic = req.getParameter("critic");
+        if (critic != null && !critic.trim().isEmpty()) {
+            query.byCritic(critic.trim());
+            filter.put("critic", critic.trim());
         }
     }
 
     /**
-     * Method which returns all the critiques(in string format) of the restaurant
-     * 
-     * @param req
-     * @return
+     * @param grade a grade written in a form
+     * @return the grade
+     * @throws IllegalArgumentException if it is not a number from MINVOTO to MAXVOTO
+     */
+    private static int parseGrade(String grade){
+        int value = Integer.parseInt(grade);
+        if (value < RestaurantOverview.MINVOTO || value > RestaurantOverview.MAXVOTO)
+            throw new IllegalArgumentException("Voto non valido: " + grade);
+        return value;
+    }
+
+    /**
+     * @return the cursor of the page ('cursor'), or null for the first page
+     * @throws IllegalArgumentException if it is not the code of a critique
+     */
+    private static String readCursor(HttpServletRequest req){
+        String cursor = req.getParameter("cursor");
+        if (cursor == null || cursor.isEmpty())
+            return null;
+        Integer.parseInt(cursor);
+        return cursor;
+    }
+
+    /**
+     * Method which sends a page of the critiques of the restaurant, in the order chosen by the user ('order',
+     * the most recent first if it is missing), starting after the last critique of the previous page ('cursor')
+     *
+     * @param req, HttpServletRequest request
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @throws IOException
      */
-    private LinkedList<String> allCritiques(HttpServletRequest req){
+    private void sendCritiquePage(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        CritiqueOrder order;
+        String cursor;
         try {
-            return Home.getInstance().getRestaurantCritiqueToString(req.getParameter("restaurant"));
+            String orderName = req.getParameter("order");
+            order = orderName == null || orderName.isEmpty() ? CritiqueOrder.RECENT : CritiqueOrder.valueOf(orderName);
+            cursor = readCursor(req);
         }
-        catch (NoCritiquesException e){
-            LinkedList<String> exc = new LinkedList<>();
-            exc.add(e.getMessage());
-            return exc;
+        catch (IllegalArgumentException e){
+            sendBadRequest(resp);
+            return;
         }
+        super.sendRestaurantPage(req, resp, req.getParameter("restaurant"), req.getParameter("username"), order,
+                cursor);
+    }
+
+    /**
+     * Method which answers with 400 (Bad Request) to a form whose parameters are not valid
+     *
+     * @param resp, the HttpServletResponse to answer to the requests of the templates
+     * @throws IOException
+     */
+    private void sendBadRequest(HttpServletResponse resp) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        render(resp, "warn.html", "Parametri della ricerca non validi");
     }
 }
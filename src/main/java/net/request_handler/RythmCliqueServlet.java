@@ -1,115 +1,323 @@
 package net.request_handler;
 
-import net.net_exception.InvalidURIException;
+import persistence.ConnectionPool;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class context in pattern strategy
  */
 public class RythmCliqueServlet extends HttpServlet {
     /**
-     * A list of the name of the right URI which can be accepted
+     * The system property which enables the compression of the responses with gzip
      */
-    private String [] rightRequest = {"/home", "/homeCritico", "/list", "/critique","/homeRistoratore", "/signUp"
-            ,"/addRestaurant","/myRestaurantAction","/addMenu", "/restaurantView","/editMenu", "/homeButton",
-            "/viewMenu"};
+    public static final String GZIP_PROPERTY = "http.gzip";
 
+    /**
+     * The system property which enables the asynchronous mode: the requests are handled by the threads
+     * of a bounded executor, so that the threads of Jetty are not kept waiting for the database.
+     * The executor runs the whole handler, the rendering of the page included, so its threads bound the
+     * requests being handled, not only the queries: a page served from RestaurantPageCache still takes a thread.
+     */
+    public static final String ASYNC_PROPERTY = "http.async";
+    /**
+     * The system property with the number of threads of the executor (by default ConnectionPool.MAX_CONNECTIONS:
+     * a handler uses one connection at a time, so more threads would wait for the connections of the pool).
+     * When most of the pages are rendered without reaching the database it can be raised above the connections.
+     */
+    public static final String ASYNC_THREADS_PROPERTY = "http.async.threads";
+    /**
+     * The system property with the number of requests which can wait for a thread of the executor
+     * (256 by default): when they are more the request is answered with 503 (Service Unavailable)
+     */
+    public static final String ASYNC_QUEUE_PROPERTY = "http.async.queue";
+    /**
+     * The system property with the milliseconds after which a request not yet answered
+     * is answered with 503 (30000 by default). A request still waiting for a thread is answered at once;
+     * the output of a handler already running is dropped and the 503 is sent when the handler returns.
+     */
+    public static final String ASYNC_TIMEOUT_PROPERTY = "http.async.timeout";
+
+    private final boolean gzip = Boolean.getBoolean(GZIP_PROPERTY);
+    private final boolean async = Boolean.getBoolean(ASYNC_PROPERTY);
+    private final long asyncTimeout = Long.getLong(ASYNC_TIMEOUT_PROPERTY, 30000L);
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor timeouts;
 
     /**
-     * Method used to create the instance of the correct class to respond to the template request
-     *
-     * @param URI the template name
-     * @return the instance of the class
-     * @throws InvalidURIException
+     * The route table: the URIs which can be accepted and the handler of each of them.
+     * It is built once, when the servlet is created, so the dispatch of a request is a single lookup.
      */
-    private RequestStrategy setRequestStrategy(String URI) throws InvalidURIException {
-        RequestStrategy rs = null;
+    private final Map<String, RequestStrategy> routes;
 
-        try {
-            isURIValid(URI);
-            String tmp = parseURI(URI);
-            rs = (RequestStrategy)Class.forName(tmp).getMethod("getInstance").invoke(null);
-        } catch (ClassNotFoundException |NoSuchMethodException |InvocationTargetException
-                | IllegalAccessException e) {
-            e.printStackTrace();
+    public RythmCliqueServlet() {
+        this(defaultRoutes());
+    }
+
+    /**
+     * Constructor used by the tests, with their own handlers
+     * @param routes the URIs which can be accepted and the handler of each of them
+     */
+    RythmCliqueServlet(Map<String, RequestStrategy> routes) {
+        this.routes = Collections.unmodifiableMap(new HashMap<>(routes));
+    }
+
+    private static Map<String, RequestStrategy> defaultRoutes() {
+        Map<String, RequestStrategy> map = new HashMap<>();
+        map.put("/home", HomeRequest.getInstance());
+        map.put("/homeCritico", HomeCriticoRequest.getInstance());
+        map.put("/list", ListRequest.getInstance());
+        map.put("/critique", CritiqueRequest.getInstance());
+        map.put("/homeRistoratore", HomeRistoratoreRequest.getInstance());
+        map.put("/signUp", SignUpRequest.getInstance());
+        map.put("/addRestaurant", AddRestaurantRequest.getInstance());
+        map.put("/myRestaurantAction", MyRestaurantActionRequest.getInstance());
+        map.put("/addMenu", AddMenuRequest.getInstance());
+        map.put("/restaurantView", RestaurantViewRequest.getInstance());
+        map.put("/editMenu", EditMenuRequest.getInstance());
+        map.put("/homeButton", HomeButtonRequest.getInstance());
+        map.put("/viewMenu", ViewMenuRequest.getInstance());
+        return map;
+    }
+
+    /**
+     * Creates the executor of the requests if the asynchronous mode is enabled
+     */
+    @Override
+    public void init() {
+        if (!async)
+            return;
+        int threads = Integer.getInteger(ASYNC_THREADS_PROPERTY, ConnectionPool.MAX_CONNECTIONS);
+        int queue = Math.max(1, Integer.getInteger(ASYNC_QUEUE_PROPERTY, 256));
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), r -> new Thread(r, "clique-request-" + count.incrementAndGet()));
+        timeouts = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "clique-request-timeout");
+            t.setDaemon(true);
+            return t;
+        });
+        timeouts.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+            timeouts.shutdown();
         }
+    }
 
+    /**
+     * Finds the handler of the URI of the request. If there is none the response is 404 (Not Found).
+     * The methods other than GET, HEAD and POST are answered by HttpServlet with 405 (Method Not Allowed).
+     *
+     * @param request, the HttpServletRequest
+     * @param response, the HttpServletResponse
+     * @return the handler, or null if the URI is not valid and 404 has been sent
+     * @throws IOException
+     */
+    private RequestStrategy route(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        RequestStrategy rs = routes.get(request.getRequestURI());
+        if (rs == null)
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
         return rs;
     }
 
     /**
-     * Method which calls the method 'doGet()' of the right class for the right template thanks to 'setRequestStrategy()'
+     * @return the URIs which can be accepted
+     */
+    public Set<String> getRoutes() {
+        return routes.keySet();
+    }
+
+    /**
+     * Method which calls the method 'doGet()' of the right class for the right template found in the route table
      * @param request, the HttpServletRequest to get parameter
      * @param response, the HttpServletResponse to answer to the requests of the templates
      * @throws IOException
      */
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response ) throws IOException {
-        response.setContentType("text/html");
+        response.setContentType("text/html;charset=UTF-8");
         response.setStatus(HttpServletResponse.SC_OK);
-        String tmp = request.getRequestURI();
-        try {
-            setRequestStrategy(tmp).doGet(response);
-        }catch (InvalidURIException e){
-            if(!(e.getMessage().equals("/favicon.ico")))
-                e.printStackTrace();
-        }
+        RequestStrategy rs = route(request, response);
+        if (rs != null)
+            dispatch(rs, false, request, response);
     }
 
     /**
-     * Method which calls the method 'doPost()' of the right class for the right template thanks to 'setRequestStrategy()'
+     * Method which calls the method 'doPost()' of the right class for the right template found in the route table
      * @param request, the HttpServletRequest to get parameter
      * @param response, the HttpServletResponse to answer to the requests of the templates
      * @throws IOException
      */
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        response.setContentType("text/html");
+        response.setContentType("text/html;charset=UTF-8");
         response.setStatus(HttpServletResponse.SC_OK);
+        RequestStrategy rs = route(request, response);
+        if (rs != null)
+            dispatch(rs, true, request, response);
+    }
 
+    /**
+     * Handles the request in the thread of Jetty or, in the asynchronous mode, in a thread of the executor.
+     * A HEAD request is always handled in the thread of Jetty, since HttpServlet computes its length
+     * as soon as doGet returns.
+     */
+    private void dispatch(RequestStrategy rs, boolean post, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (executor == null || !request.isAsyncSupported() || "HEAD".equals(request.getMethod())) {
+            handle(rs, post, request, response);
+            return;
+        }
+        AsyncRequest task = new AsyncRequest(rs, post, request, response);
+        task.timeout = timeouts.schedule(task::expire, asyncTimeout, TimeUnit.MILLISECONDS);
         try {
-            setRequestStrategy(request.getRequestURI()).doPost(request, response);
-        }catch (InvalidURIException e){
-            if(!(e.getMessage().equals("/favicon.ico")))
-                e.printStackTrace();
-
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.timeout.cancel(false);
+            task.cancel();
         }
     }
 
     /**
-     * Checks if the URI is valid thanks to the attributes rightRequest og the class.
-     * @param URI
+     * @return the number of timeouts of the requests which are scheduled and have not expired yet
+     * (the ones of the requests already answered are cancelled)
      */
-    private void isURIValid(String URI){
-        ArrayList<String> requestList =  ArrayToList(this.rightRequest);
-        if(!(requestList.contains(URI)))
-            throw new InvalidURIException(URI);
+    int getPendingTimeouts() {
+        return timeouts == null ? 0 : timeouts.getQueue().size();
     }
 
+    /**
+     * A request handled in the asynchronous mode. The timeout of the AsyncContext is disabled, since when it
+     * expires the container completes the request even if a handler is still using it: the request is completed
+     * only by the thread which handles it, or by the one which cancels it before any thread has taken it.
+     * Its own timeout is scheduled before it is given to the executor, so that the thread which handles it
+     * always finds the timeout to cancel.
+     */
+    private final class AsyncRequest implements Runnable {
+        private static final int WAITING = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final RequestStrategy rs;
+        private final boolean post;
+        private final HttpServletRequest request;
+        private final GuardedResponse response;
+        private final AsyncContext context;
+        private final AtomicInteger state;
+        private volatile ScheduledFuture<?> timeout;
+
+        AsyncRequest(RequestStrategy rs, boolean post, HttpServletRequest request, HttpServletResponse response) {
+            this.rs = rs;
+            this.post = post;
+            this.request = request;
+            this.response = new GuardedResponse(response);
+            this.context = request.startAsync(request, response);
+            this.context.setTimeout(0);
+            this.state = new AtomicInteger(WAITING);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(WAITING, RUNNING))
+                return;
+            try {
+                handle(rs, post, request, response);
+            } catch (IOException | RuntimeException e) {
+                if (!response.isCancelled())
+                    e.printStackTrace();
+            } finally {
+                ScheduledFuture<?> t = timeout;
+                if (t != null)
+                    t.cancel(false);
+                response.finish();
+                if (response.isCancelled())
+                    sendUnavailable();
+                context.complete();
+            }
+        }
+
+        /**
+         * Called when the timeout expires: the request is answered here if no thread has taken it,
+         * otherwise the output of its handler is dropped from now on
+         */
+        void expire() {
+            executor.remove(this);
+            if (!cancel())
+                response.cancel();
+        }
 
-    private ArrayList<String> ArrayToList(String [] s){
-        ArrayList<String> list = new ArrayList<>();
-        for(String i: s)
-            list.add(i);
-        return list;
+        /**
+         * Answers with 503 a request which no thread has taken yet: if a thread takes it later, it does nothing
+         * @return false if a thread has already taken the request
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED))
+                return false;
+            response.cancel();
+            sendUnavailable();
+            context.complete();
+            return true;
+        }
+
+        private void sendUnavailable() {
+            HttpServletResponse resp = (HttpServletResponse) response.getResponse();
+            if (resp.isCommitted())
+                return;
+            try {
+                resp.reset();
+                resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            } catch (IOException | IllegalStateException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void handle(RequestStrategy rs, boolean post, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        GzipResponse gzipResponse = compress(request, response);
+        HttpServletResponse resp = gzipResponse != null ? gzipResponse : response;
+        try {
+            if (post)
+                rs.doPost(request, resp);
+            else
+                rs.doGet(request, resp);
+        } finally {
+            if (gzipResponse != null)
+                gzipResponse.finish();
+        }
     }
 
     /**
-     * Modifies the URI received, so that it can be used in 'setRequestStrategy()' to use the correct request handler
-     * with that name
-     * @param uri
-     * @return
+     * When the compression is enabled every response varies with the header Accept-Encoding of the request.
+     * @return the response compressed with gzip, or null if the compression is not enabled or the client
+     * does not accept it
      */
-    private String parseURI(String uri){
-        String path = "net.request_handler.";
-        String uri1 = String.valueOf(uri.toCharArray(), 1,1).toUpperCase();
-        String uri2 = String.valueOf(uri.toCharArray(), 2,uri.length()-2);
-        return path+uri1+uri2+"Request";
+    private GzipResponse compress(HttpServletRequest request, HttpServletResponse response) {
+        if (!gzip)
+            return null;
+        response.setHeader("Vary", "Accept-Encoding");
+        String accepted = request.getHeader("Accept-Encoding");
+        if (accepted == null || !accepted.contains("gzip"))
+            return null;
+        return new GzipResponse(response);
     }
 }
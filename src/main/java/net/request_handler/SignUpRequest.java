@@ -2,7 +2,6 @@ package net.request_handler;
 
 import application.controller.HomeUser;
 import application.UserType;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -32,7 +31,7 @@ public class SignUpRequest extends AddressHomeRequest {
 
     @Override
     public void doGet(HttpServletResponse resp) throws IOException {
-        write(resp,Rythm.render("signUp.html"));
+        render(resp, "signUp.html");
     }
 
     /**
@@ -71,7 +70,7 @@ public class SignUpRequest extends AddressHomeRequest {
      */
     private void signUp(String type, String [] credential, HttpServletResponse resp)throws IOException, SQLException {
         if(!(HomeUser.getInstance().signUp(credential, UserType.valueOf(type)))){
-            write(resp,Rythm.render("warn.html", "Username non valido, già in uso!"));
+            render(resp, "warn.html", "Username non valido, già in uso!");
         }
         else {
             if(type.equals("CRITIC"))
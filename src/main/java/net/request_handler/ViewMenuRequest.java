@@ -2,7 +2,6 @@ package net.request_handler;
 
 import application.controller.Home;
 import application.restaurant_exception.EmptyMenuException;
-import org.rythmengine.Rythm;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -56,11 +55,11 @@ public class ViewMenuRequest extends AbstractRequestStrategy {
             conf.put("username", req.getParameter("username"));
             conf.put("restCode",req.getParameter("restaurant"));
             conf.put("name",Home.getInstance().getRestaurantName(restaurantCode));
-            write(resp, Rythm.render("viewMenu.html",conf));
+            render(resp, "viewMenu.html", conf);
         } catch (SQLException e) {
             e.printStackTrace();
         }catch (EmptyMenuException e){
-            write(resp,Rythm.render("warn.html","Il ristorante non ha ancora aggiunto un menù"));
+            render(resp, "warn.html", "Il ristorante non ha ancora aggiunto un menù");
         }
 
     }
@@ -1,6 +1,11 @@
 package persistence;
 
+import persistence.cache.CacheStats;
+
 import java.sql.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract class which has to be extended by all the Mappers.
@@ -9,7 +14,7 @@ import java.sql.*;
 public abstract class AbstractPersistenceMapper implements IMapper {
 
     protected String tableName;
-    protected Connection conn;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loading;
 
 
     /**
@@ -19,24 +24,77 @@ public abstract class AbstractPersistenceMapper implements IMapper {
      */
     protected AbstractPersistenceMapper(String tableName) throws SQLException {
         this.tableName = tableName;
-        conn = DriverManager.getConnection(DB_URL,USER,PASSWORD);
+        this.loading = new ConcurrentHashMap<>();
     }
 
     /**
      * Method called when an objects is requested .
+     * The caches of the mappers can be read by many threads together, so an object which is in cache
+     * is returned without taking any lock. If it is not, only one thread reads it from the table:
+     * the others which request the same object meanwhile wait for its query instead of sending their own.
      * @param OID is the code (by whom the object is identified in the system)of the object which is requested.
      * @return the object
      */
     @Override
-    public synchronized Object get(String OID) throws SQLException{
+    public Object get(String OID) throws SQLException{
         Object obj = getObjectFromCache(OID);
-        if(obj == null){
-            obj = getObjectFromTable(OID);
-            updateCache(OID, obj);
+        if(obj != null)
+            return obj;
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(OID, load);
+        if(running != null)
+            return waitLoad(running);
+        try {
+            obj = getObjectFromCache(OID);
+            if(obj == null) {
+                obj = getObjectFromTable(OID);
+                if(obj != null)
+                    obj = cacheLoaded(OID, obj);
+            }
+            load.complete(obj);
+            return obj;
+        } catch (SQLException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(OID, load);
         }
+    }
+
+    /**
+     * Method which puts in the cache an object read from the table, unless it has been written
+     * by put or updateTable while it was being read: in that case the written one is kept.
+     * @param OID the key of the object
+     * @param obj the object read from the table
+     * @return the object which is in the cache
+     */
+    private synchronized Object cacheLoaded(String OID, Object obj){
+        Object cached = getObjectFromCache(OID);
+        if(cached != null)
+            return cached;
+        updateCache(OID, obj);
         return obj;
     }
 
+    /**
+     * Method which waits for the query started by another thread to read an object
+     * @param load the result of the query
+     * @return the object
+     * @throws SQLException if the query failed
+     */
+    private Object waitLoad(CompletableFuture<Object> load) throws SQLException{
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof SQLException)
+                throw (SQLException) e.getCause();
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
     /**
      * Method which get the object, represented by its key, (if it is not in cache) from the table
      * who is linked to the mapper
@@ -56,11 +114,32 @@ public abstract class AbstractPersistenceMapper implements IMapper {
 
     /**
      * Method called the cache has to be updated.
+     * The cache has to allow reads from other threads while it is updated,
+     * since get reads it without holding the lock of the mapper.
      * @param OID the key of the object
      * @param obj the object itself
      */
     protected abstract void updateCache(String OID,Object obj);
 
+    /**
+     * Method which updates the cache holding the lock of the mapper.
+     * All the writes to the cache go through it, so that they are not overwritten
+     * by an object which was being read from the table at the same time.
+     * @param OID the key of the object
+     * @param obj the object itself
+     */
+    protected synchronized void cacheObject(String OID, Object obj){
+        updateCache(OID, obj);
+    }
+
+    /**
+     * @return the counters of the cache of the mapper, or null if its cache is not bounded
+     * (because it has to keep all the objects of its table)
+     */
+    public CacheStats getCacheStats(){
+        return null;
+    }
+
     /**
      * Method which select from the table the last code of the Objects of the table belonging
      * to the Mapper
@@ -68,14 +147,37 @@ public abstract class AbstractPersistenceMapper implements IMapper {
      * @return the last code of the table
      * @throws SQLException
      */
-    protected synchronized String getLastObjectCode(String keyName) throws SQLException{
-        Statement stm = conn.createStatement();
-        ResultSet rs = stm.executeQuery("select max("+keyName+") from "+tableName);
-        if(rs.next())
-            return rs.getString(1);
-        return null;
+    protected String getLastObjectCode(String keyName) throws SQLException{
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("select max("+keyName+") from "+tableName);
+            try (ResultSet rs = pstm.executeQuery()) {
+                if(rs.next())
+                    return rs.getString(1);
+                return null;
+            }
+        } finally {
+            releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Method which takes a connection from the pool shared by all the mappers.
+     * It has always to be given back through releaseConnection, in a finally block.
+     * @return the connection
+     * @throws SQLException if the database can not be reached
+     */
+    protected PooledConnection borrowConnection() throws SQLException{
+        return ConnectionPool.getInstance().borrow();
     }
 
+    /**
+     * Method which gives back to the pool a connection taken through borrowConnection
+     * @param conn the connection
+     */
+    protected void releaseConnection(PooledConnection conn){
+        ConnectionPool.getInstance().release(conn);
+    }
 
 
 }
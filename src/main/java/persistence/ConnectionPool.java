@@ -0,0 +1,236 @@
+package persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of connections to the database shared by all the mappers.
+ * Each mapper borrows a connection only for the time of a single query, so requests which
+ * use the same mapper can reach the database in parallel.
+ * It is implemented through Singleton pattern implementation.
+ */
+public class ConnectionPool {
+
+    public static final int MAX_CONNECTIONS = 10;
+    private static final long BORROW_TIMEOUT = 5000;
+    private static final long VALIDATION_INTERVAL = 30000;
+    private static final int VALIDATION_TIMEOUT = 2;
+    /**
+     * If this system property is set, the server prints the statistics of the pool (see toString)
+     * every that many seconds; they are always printed when the server is stopped
+     */
+    public static final String STATS_INTERVAL_PROPERTY = "db.pool.stats.interval";
+
+    private static ConnectionPool instance = null;
+
+    private final ConnectionFactory factory;
+    private final int maxConnections;
+    private final long borrowTimeout;
+    private final LinkedBlockingDeque<PooledConnection> idle;
+    private final Semaphore permits;
+    private volatile boolean closed;
+
+    private final AtomicLong created;
+    private final AtomicLong discarded;
+    private final AtomicLong borrowed;
+    private final AtomicLong waited;
+    private final AtomicLong timedOut;
+
+    /**
+     * Opens the physical connections of the pool
+     */
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private ConnectionPool() {
+        this(ConnectionPool::openDatabaseConnection, MAX_CONNECTIONS, BORROW_TIMEOUT);
+    }
+
+    /**
+     * Constructor used by the tests, whose connections do not reach the database
+     * @param factory opens the physical connections
+     * @param maxConnections the number of connections which can be lent together
+     * @param borrowTimeout milliseconds borrow waits for a connection before failing
+     */
+    ConnectionPool(ConnectionFactory factory, int maxConnections, long borrowTimeout) {
+        this.factory = factory;
+        this.maxConnections = maxConnections;
+        this.borrowTimeout = borrowTimeout;
+        this.idle = new LinkedBlockingDeque<>();
+        this.permits = new Semaphore(maxConnections, true);
+        this.created = new AtomicLong();
+        this.discarded = new AtomicLong();
+        this.borrowed = new AtomicLong();
+        this.waited = new AtomicLong();
+        this.timedOut = new AtomicLong();
+    }
+
+    /**
+     * 'Pattern Singleton Implementation'
+     *
+     * If the object has not already been instanced, it is instanced and it is returned.
+     * @return instance(ConnectionPool)
+     */
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null)
+            instance = new ConnectionPool();
+        return instance;
+    }
+
+    /**
+     * Replaces the pool shared by the mappers. Used by the tests; null restores the default one.
+     * @param pool the new pool
+     */
+    static synchronized void setInstance(ConnectionPool pool) {
+        instance = pool;
+    }
+
+    /**
+     * Lends a connection to the caller. The most recently used idle connection is preferred;
+     * if it has not been used for a while it is validated and, if broken, it is replaced by a new one.
+     * @return a working connection, which has to be given back through release
+     * @throws SQLException if no connection becomes available in time, the database can not be reached
+     * or the pool has been shut down
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed)
+            throw new SQLTransientConnectionException("Connessioni al database chiuse: server in arresto");
+        acquirePermit();
+        try {
+            PooledConnection conn;
+            while ((conn = idle.pollFirst()) != null) {
+                if (System.currentTimeMillis() - conn.getLastUsed() < VALIDATION_INTERVAL
+                        || conn.isValid(VALIDATION_TIMEOUT))
+                    break;
+                discard(conn);
+            }
+            if (conn == null)
+                conn = createConnection();
+            borrowed.incrementAndGet();
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a connection back to the pool. Connections closed by the driver
+     * (because the link with the database has been lost) are thrown away, and after shutdown
+     * every connection given back is closed.
+     * @param conn the connection previously obtained through borrow
+     */
+    public void release(PooledConnection conn) {
+        if (conn == null)
+            return;
+        if (!conn.isClosed() && conn.inTransaction())
+            conn.rollback();
+        if (conn.isClosed()) {
+            discard(conn);
+        } else {
+            conn.touch();
+            idle.offerFirst(conn);
+            if (closed)
+                closeIdle();
+        }
+        permits.release();
+    }
+
+    /**
+     * Closes all the idle connections and the ones still lent as soon as they are given back:
+     * from now on borrow fails. Called by CliqueServer when the server is stopped.
+     */
+    public void shutdown() {
+        closed = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        PooledConnection conn;
+        while ((conn = idle.pollFirst()) != null)
+            conn.close();
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (permits.tryAcquire())
+            return;
+        waited.incrementAndGet();
+        try {
+            if (permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timedOut.incrementAndGet();
+        throw new SQLTransientConnectionException("Nessuna connessione al database disponibile");
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        PooledConnection conn = new PooledConnection(factory.open());
+        created.incrementAndGet();
+        return conn;
+    }
+
+    /**
+     * Opens a new physical connection. The statements are prepared by the server,
+     * so that the ones cached by PooledConnection are parsed only once, and batches
+     * of inserts are sent as a single multi-row statement.
+     */
+    private static Connection openDatabaseConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", IMapper.USER);
+        properties.setProperty("password", IMapper.PASSWORD);
+        properties.setProperty("useServerPrepStmts", "true");
+        properties.setProperty("rewriteBatchedStatements", "true");
+        return DriverManager.getConnection(IMapper.DB_URL, properties);
+    }
+
+    private void discard(PooledConnection conn) {
+        conn.close();
+        discarded.incrementAndGet();
+    }
+
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public long getCreatedConnections() {
+        return created.get();
+    }
+
+    public long getDiscardedConnections() {
+        return discarded.get();
+    }
+
+    public long getBorrowCount() {
+        return borrowed.get();
+    }
+
+    public long getWaitCount() {
+        return waited.get();
+    }
+
+    public long getTimeoutCount() {
+        return timedOut.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool[active=" + getActiveConnections() + ", idle=" + getIdleConnections()
+                + ", created=" + getCreatedConnections() + ", discarded=" + getDiscardedConnections()
+                + ", borrowed=" + getBorrowCount() + ", waited=" + getWaitCount()
+                + ", timedOut=" + getTimeoutCount() + "]";
+    }
+}
@@ -0,0 +1,667 @@
+package persistence;
+
+import application.Critique;
+import application.CritiqueOrder;
+import application.CritiqueView;
+import application.MenuEntry;
+import application.RestaurantOverview;
+import persistence.cache.BoundedCache;
+import persistence.cache.MapperCache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntUnaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * A store of the critiques kept outside the heap, used by CritiquesMapper when the system property
+ * critiques.store is "offheap".
+ * Each critique is a row of fixed size in direct buffers (its code, the ids of its restaurant and critic and
+ * its grades); comments and names of the dishes are kept in an arena of UTF-8 bytes, and the dishes of
+ * each critique are a range of a column of (dish, grade) pairs. Restaurants, critics and dishes are
+ * replaced by integer ids, so the heap holds only their codes once and, for each restaurant, its rows sorted
+ * in every CritiqueOrder (for each critic, its rows from the most recent). A page of critiques is read from
+ * those arrays as a range of codes, so only the critiques of the page are rebuilt as objects; they are not kept,
+ * but their views are, in a bounded cache.
+ * The heap still holds about 36 bytes for each critique: the row of its code (4 bytes), its row in the
+ * arrays of its restaurant (4 bytes for each of the 7 orders) and in the one of its critic (4 bytes).
+ * The CritiqueBitmapIndex and the RestaurantStatistics of the catalogue are kept in the heap as well.
+ * The critiques read when the system is started are given to load, which only appends their rows to the arrays:
+ * each array is sorted once, by finishLoading, instead of inserting every row at its place.
+ */
+public class CritiqueColumnStore {
+
+    private static final int SECTIONS = RestaurantOverview.CRITIQUE_SECTIONS.length;
+
+    private static final int CODE = 0;
+    private static final int RESTAURANT = 4;
+    private static final int CRITIC = 8;
+    private static final int COMMENT_LENGTH = 12;
+    private static final int GRADES = 16;
+    private static final int COMMENT = GRADES + 8 * SECTIONS;
+    private static final int FIRST_DISH = COMMENT + 8;
+    private static final int DISH_COUNT = FIRST_DISH + 4;
+    private static final int ROW_BYTES = DISH_COUNT + 4;
+
+    private static final int DISH_NAME = 0;
+    private static final int DISH_NAME_LENGTH = 8;
+    private static final int DISH_PRICE = 12;
+    private static final int DISH_TYPE = 20;
+    private static final int DISH_INFO_BYTES = 24;
+
+    private static final int DISH_ID = 0;
+    private static final int DISH_GRADE = 8;
+    private static final int DISH_ENTRY_BYTES = 16;
+
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    private static final int TEXT_CHUNK_BYTES = 1 << 20;
+    private static final int NO_COMMENT = -1;
+    private static final long DEFAULT_VIEW_CACHE_SIZE = 10000;
+    private static final CritiqueOrder[] ORDERS = CritiqueOrder.values();
+
+    private final Column rows;
+    private final Column dishInfo;
+    private final Column dishEntries;
+    private final Arena text;
+    private final Dictionary restaurants;
+    private final Dictionary critics;
+    private final Dictionary dishes;
+    private final Dictionary dishTypes;
+    private final Map<Integer, SortedRows[]> rowsByRestaurant;
+    private final Map<Integer, SortedRows> rowsByCritic;
+    private final UnaryOperator<MenuEntry> dishCache;
+    private final MapperCache<Integer, CritiqueView> views;
+    private volatile int[] rowByCode;
+    private volatile int size;
+    private int dishEntryCount;
+
+    /**
+     * Constructor of the class
+     * @param dishCache the function which returns the instance of a dish already in use (such as the one kept
+     *                  by MenuEntryMapper), which is reused when the critiques are rebuilt
+     */
+    public CritiqueColumnStore(UnaryOperator<MenuEntry> dishCache) {
+        this.rows = new Column(ROW_BYTES);
+        this.dishInfo = new Column(DISH_INFO_BYTES);
+        this.dishEntries = new Column(DISH_ENTRY_BYTES);
+        this.text = new Arena();
+        this.restaurants = new Dictionary();
+        this.critics = new Dictionary();
+        this.dishes = new Dictionary();
+        this.dishTypes = new Dictionary();
+        this.rowsByRestaurant = new HashMap<>();
+        this.rowsByCritic = new HashMap<>();
+        this.dishCache = dishCache;
+        this.views = BoundedCache.fromSystemProperties("critiqueViews", DEFAULT_VIEW_CACHE_SIZE);
+        this.rowByCode = new int[RECORDS_PER_CHUNK];
+    }
+
+    /**
+     * Adds a critique to the store, inserting its row at its place in the sorted arrays
+     * @param c the critique, with its grades, comment and dishes
+     */
+    public synchronized void add(Critique c) {
+        int row = write(c);
+        for (SortedRows sorted : rowsByRestaurant.get(rows.getInt(rows.offset(row) + RESTAURANT)))
+            sorted.insert(row);
+        rowsByCritic.get(rows.getInt(rows.offset(row) + CRITIC)).insert(row);
+        size = row + 1;
+    }
+
+    /**
+     * Adds a critique read when the system is started: its row is only appended to the arrays of its restaurant
+     * and critic, which are sorted by finishLoading (or when they are read)
+     * @param c the critique, with its grades, comment and dishes
+     */
+    public synchronized void load(Critique c) {
+        int row = write(c);
+        for (SortedRows sorted : rowsByRestaurant.get(rows.getInt(rows.offset(row) + RESTAURANT)))
+            sorted.append(row);
+        rowsByCritic.get(rows.getInt(rows.offset(row) + CRITIC)).append(row);
+        size = row + 1;
+    }
+
+    /**
+     * Sorts the arrays of the rows given to load
+     */
+    public synchronized void finishLoading() {
+        for (SortedRows[] ordered : rowsByRestaurant.values()) {
+            for (SortedRows sorted : ordered)
+                sorted.sort();
+        }
+        for (SortedRows sorted : rowsByCritic.values())
+            sorted.sort();
+    }
+
+    /**
+     * Writes the row of a critique, which is published by the caller through the size of the store
+     * @return the row
+     */
+    private int write(Critique c) {
+        int row = size;
+        long offset = rows.ensure(row);
+        int restaurant = restaurants.idOf(c.getRestaurantCode());
+        int critic = critics.idOf(c.getCritico());
+        rows.putInt(offset + CODE, c.getCritiqueCode());
+        rows.putInt(offset + RESTAURANT, restaurant);
+        rows.putInt(offset + CRITIC, critic);
+        for (int i = 0; i < SECTIONS; i++)
+            rows.putDouble(offset + GRADES + 8 * i, c.getGrade(RestaurantOverview.CRITIQUE_SECTIONS[i]));
+        if (c.getComment() == null) {
+            rows.putInt(offset + COMMENT_LENGTH, NO_COMMENT);
+        } else {
+            byte[] comment = c.getComment().getBytes(StandardCharsets.UTF_8);
+            rows.putLong(offset + COMMENT, text.append(comment));
+            rows.putInt(offset + COMMENT_LENGTH, comment.length);
+        }
+        rows.putInt(offset + FIRST_DISH, dishEntryCount);
+        rows.putInt(offset + DISH_COUNT, c.getDishes().size());
+        for (Map.Entry<MenuEntry, Double> dish : c.getDishes().entrySet()) {
+            long entry = dishEntries.ensure(dishEntryCount++);
+            dishEntries.putInt(entry + DISH_ID, dishIdOf(dish.getKey()));
+            dishEntries.putDouble(entry + DISH_GRADE, dish.getValue());
+        }
+        rowsByRestaurant.computeIfAbsent(restaurant, id -> {
+            SortedRows[] ordered = new SortedRows[ORDERS.length];
+            for (CritiqueOrder order : ORDERS)
+                ordered[order.ordinal()] = new SortedRows(order);
+            return ordered;
+        });
+        rowsByCritic.computeIfAbsent(critic, id -> new SortedRows(CritiqueOrder.RECENT));
+        indexCode(c.getCritiqueCode(), row);
+        return row;
+    }
+
+    /**
+     * @return the number of critiques in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param code the code of a critique
+     * @return the critique, or null if it is not in the store
+     */
+    public Critique getByCode(int code) {
+        int row = rowOf(code);
+        return row < 0 ? null : get(row);
+    }
+
+    /**
+     * @param code the code of a critique
+     * @return the view of the critique, or null if it is not in the store
+     */
+    public CritiqueView getView(int code) {
+        CritiqueView view = views.get(code);
+        if (view == null) {
+            Critique c = getByCode(code);
+            if (c == null)
+                return null;
+            view = c.getView();
+            views.put(code, view);
+        }
+        return view;
+    }
+
+    /**
+     * @param code the code of a critique
+     * @return the code of the restaurant of the critique, or null if it is not in the store
+     */
+    public String getRestaurantOf(int code) {
+        int row = rowOf(code);
+        return row < 0 ? null : restaurants.valueOf(rows.getInt(rows.offset(row) + RESTAURANT));
+    }
+
+    /**
+     * @param restaurantCode the code of a restaurant
+     * @return the critiques of the restaurant, from the most recent
+     */
+    public List<Critique> getCritiquesOfRestaurant(String restaurantCode) {
+        int[] codes = getCodesOfRestaurant(restaurantCode, CritiqueOrder.RECENT, null, Integer.MAX_VALUE);
+        List<Critique> critiques = new ArrayList<>(codes.length);
+        for (int code : codes)
+            critiques.add(getByCode(code));
+        return critiques;
+    }
+
+    /**
+     * @param restaurantCode the code of a restaurant
+     * @return the number of critiques of the restaurant
+     */
+    public synchronized int countCritiquesOfRestaurant(String restaurantCode) {
+        Integer id = restaurants.find(restaurantCode);
+        SortedRows[] ordered = id == null ? null : rowsByRestaurant.get(id);
+        return ordered == null ? 0 : ordered[0].count;
+    }
+
+    /**
+     * @param critic the username of a critic
+     * @return the number of critiques of the critic
+     */
+    public synchronized int countCritiquesOfCritic(String critic) {
+        Integer id = critics.find(critic);
+        SortedRows sorted = id == null ? null : rowsByCritic.get(id);
+        return sorted == null ? 0 : sorted.count;
+    }
+
+    /**
+     * Method which returns the codes of the critiques of a restaurant which follow a cursor in an order,
+     * the same ones which RestaurantCritiqueFeed returns for the critiques kept in the heap
+     * @param restaurantCode the code of the restaurant
+     * @param order the order of the critiques
+     * @param afterCode the code of the last critique of the previous page, or null for the first page
+     * @param limit the maximum number of codes
+     * @return the codes
+     */
+    public synchronized int[] getCodesOfRestaurant(String restaurantCode, CritiqueOrder order, Integer afterCode,
+                                                   int limit) {
+        Integer id = restaurants.find(restaurantCode);
+        SortedRows[] ordered = id == null ? null : rowsByRestaurant.get(id);
+        if (ordered == null)
+            return new int[0];
+        SortedRows sorted = ordered[order.ordinal()];
+        int from = 0;
+        if (afterCode != null) {
+            int last = rowOf(afterCode);
+            if (order == CritiqueOrder.RECENT)
+                from = sorted.after(row -> Integer.compare(afterCode, codeOf(row)));
+            else if (last >= 0 && rows.getInt(rows.offset(last) + RESTAURANT) == id)
+                from = sorted.after(row -> compare(row, last, order));
+        }
+        return sorted.codes(from, limit);
+    }
+
+    /**
+     * Method which returns the codes of the critiques of a critic, from the most recent
+     * @param critic the username of the critic
+     * @param beforeCode the code of the last critique of the previous page, or null for the first page
+     * @param limit the maximum number of codes
+     * @return the codes of the critiques older than the cursor
+     */
+    public synchronized int[] getCodesOfCritic(String critic, Integer beforeCode, int limit) {
+        Integer id = critics.find(critic);
+        SortedRows sorted = id == null ? null : rowsByCritic.get(id);
+        if (sorted == null)
+            return new int[0];
+        int from = beforeCode == null ? 0 : sorted.after(row -> Integer.compare(beforeCode, codeOf(row)));
+        return sorted.codes(from, limit);
+    }
+
+    /**
+     * @return a view of all the critiques of the store, which are rebuilt one at a time while it is iterated
+     */
+    public Collection<Critique> asCollection() {
+        return new AbstractCollection<Critique>() {
+            @Override
+            public Iterator<Critique> iterator() {
+                int end = size;
+                return new Iterator<Critique>() {
+                    private int row = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < end;
+                    }
+
+                    @Override
+                    public Critique next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        return get(row++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return the bytes allocated outside the heap
+     */
+    public long getOffHeapBytes() {
+        return rows.allocated() + dishInfo.allocated() + dishEntries.allocated() + text.allocated();
+    }
+
+    /**
+     * Rebuilds the critique of a row
+     * @param row the row, lower than size
+     * @return the critique
+     */
+    private Critique get(int row) {
+        long offset = rows.offset(row);
+        Critique c = new Critique(critics.valueOf(rows.getInt(offset + CRITIC)),
+                restaurants.valueOf(rows.getInt(offset + RESTAURANT)), rows.getInt(offset + CODE));
+        double[] grades = new double[SECTIONS - 1];
+        for (int i = 0; i < grades.length; i++)
+            grades[i] = rows.getDouble(offset + GRADES + 8 * i);
+        c.writeVotes(grades);
+        int commentLength = rows.getInt(offset + COMMENT_LENGTH);
+        if (commentLength != NO_COMMENT)
+            c.setComment(new String(text.read(rows.getLong(offset + COMMENT), commentLength), StandardCharsets.UTF_8));
+
+        HashMap<MenuEntry, Double> dishGrades = new HashMap<>();
+        int first = rows.getInt(offset + FIRST_DISH);
+        int count = rows.getInt(offset + DISH_COUNT);
+        for (int i = first; i < first + count; i++) {
+            long entry = dishEntries.offset(i);
+            dishGrades.put(getDish(dishEntries.getInt(entry + DISH_ID), c.getRestaurantCode()),
+                    dishEntries.getDouble(entry + DISH_GRADE));
+        }
+        c.voteDishes(dishGrades);
+        return c;
+    }
+
+    /**
+     * @return the row of the critique, or -1 if it is not in the store
+     */
+    private int rowOf(int code) {
+        int[] index = rowByCode;
+        if (code < 0 || code >= index.length)
+            return -1;
+        return index[code] - 1;
+    }
+
+    private int codeOf(int row) {
+        return rows.getInt(rows.offset(row) + CODE);
+    }
+
+    /**
+     * The grade of a row in an order is read from its columns: the mean is computed as
+     * RestaurantOverview.getMean does, so the rows are sorted as RestaurantCritiqueFeed sorts the critiques.
+     */
+    private double gradeOf(int row, CritiqueOrder order) {
+        long offset = rows.offset(row);
+        if (order.getSection() != null)
+            return rows.getDouble(offset + GRADES + 8 * order.getSection().ordinal());
+        double mean = 0;
+        for (int i = 0; i < SECTIONS; i++)
+            mean += rows.getDouble(offset + GRADES + 8 * i);
+        return mean / SECTIONS;
+    }
+
+    /**
+     * Compares two rows as RestaurantCritiqueFeed compares the critiques: the highest grade in the order first
+     * and, among the ones with the same grade (or in the order RECENT), the most recent first
+     */
+    private int compare(int row1, int row2, CritiqueOrder order) {
+        if (order != CritiqueOrder.RECENT) {
+            int byGrade = Double.compare(gradeOf(row2, order), gradeOf(row1, order));
+            if (byGrade != 0)
+                return byGrade;
+        }
+        return Integer.compare(codeOf(row2), codeOf(row1));
+    }
+
+    private int dishIdOf(MenuEntry dish) {
+        Integer id = dishes.find(dish.getCod());
+        if (id != null)
+            return id;
+        id = dishes.idOf(dish.getCod());
+        long offset = dishInfo.ensure(id);
+        byte[] name = dish.getDish().getBytes(StandardCharsets.UTF_8);
+        dishInfo.putLong(offset + DISH_NAME, text.append(name));
+        dishInfo.putInt(offset + DISH_NAME_LENGTH, name.length);
+        dishInfo.putDouble(offset + DISH_PRICE, dish.getPrice());
+        dishInfo.putInt(offset + DISH_TYPE, dishTypes.idOf(dish.getType()));
+        return id;
+    }
+
+    private MenuEntry getDish(int id, String restaurantCode) {
+        long offset = dishInfo.offset(id);
+        String name = new String(text.read(dishInfo.getLong(offset + DISH_NAME),
+                dishInfo.getInt(offset + DISH_NAME_LENGTH)), StandardCharsets.UTF_8);
+        return dishCache.apply(new MenuEntry(name, dishInfo.getDouble(offset + DISH_PRICE),
+                dishes.valueOf(id), restaurantCode, dishTypes.valueOf(dishInfo.getInt(offset + DISH_TYPE))));
+    }
+
+    private void indexCode(int code, int row) {
+        int[] index = rowByCode;
+        if (code >= index.length)
+            index = Arrays.copyOf(index, Math.max(code + 1, index.length * 2));
+        index[code] = row + 1;
+        rowByCode = index;
+    }
+
+    /**
+     * Records of fixed size kept in direct buffers of RECORDS_PER_CHUNK records each,
+     * which are allocated when the records are added. A record never crosses two buffers.
+     */
+    private static final class Column {
+        private final int recordBytes;
+        private volatile ByteBuffer[] chunks;
+
+        Column(int recordBytes) {
+            this.recordBytes = recordBytes;
+            this.chunks = new ByteBuffer[0];
+        }
+
+        /**
+         * Allocates the buffer of a record if needed. Called holding the lock of the store.
+         * @return the offset of the record
+         */
+        long ensure(int record) {
+            int chunk = record / RECORDS_PER_CHUNK;
+            if (chunk >= chunks.length) {
+                ByteBuffer[] grown = Arrays.copyOf(chunks, chunk + 1);
+                for (int i = chunks.length; i < grown.length; i++)
+                    grown[i] = ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * recordBytes);
+                chunks = grown;
+            }
+            return offset(record);
+        }
+
+        long offset(int record) {
+            return (long) record * recordBytes;
+        }
+
+        private ByteBuffer chunk(long offset) {
+            return chunks[(int) (offset / ((long) RECORDS_PER_CHUNK * recordBytes))];
+        }
+
+        private int position(long offset) {
+            return (int) (offset % ((long) RECORDS_PER_CHUNK * recordBytes));
+        }
+
+        int getInt(long offset) {
+            return chunk(offset).getInt(position(offset));
+        }
+
+        void putInt(long offset, int value) {
+            chunk(offset).putInt(position(offset), value);
+        }
+
+        long getLong(long offset) {
+            return chunk(offset).getLong(position(offset));
+        }
+
+        void putLong(long offset, long value) {
+            chunk(offset).putLong(position(offset), value);
+        }
+
+        double getDouble(long offset) {
+            return chunk(offset).getDouble(position(offset));
+        }
+
+        void putDouble(long offset, double value) {
+            chunk(offset).putDouble(position(offset), value);
+        }
+
+        long allocated() {
+            return (long) chunks.length * RECORDS_PER_CHUNK * recordBytes;
+        }
+    }
+
+    /**
+     * Variable length byte strings appended to direct buffers of TEXT_CHUNK_BYTES bytes
+     * (or of the length of the string, if it is longer). A string is addressed by its buffer and position.
+     * The array of the buffers read without the lock is published again only when a buffer is added:
+     * the bytes of a string are visible to the readers since its critique is published through the size
+     * of the store after they are written.
+     */
+    private static final class Arena {
+        private final List<ByteBuffer> chunks;
+        private volatile ByteBuffer[] published;
+        private long allocated;
+
+        Arena() {
+            this.chunks = new ArrayList<>();
+            this.published = new ByteBuffer[0];
+        }
+
+        /**
+         * Called holding the lock of the store.
+         * @return the address of the bytes
+         */
+        long append(byte[] bytes) {
+            ByteBuffer current = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (current == null || current.remaining() < bytes.length) {
+                current = ByteBuffer.allocateDirect(Math.max(TEXT_CHUNK_BYTES, bytes.length));
+                chunks.add(current);
+                allocated += current.capacity();
+                published = chunks.toArray(new ByteBuffer[0]);
+            }
+            int position = current.position();
+            current.put(bytes);
+            return ((long) (chunks.size() - 1) << 32) | position;
+        }
+
+        byte[] read(long address, int length) {
+            ByteBuffer chunk = published[(int) (address >>> 32)].duplicate();
+            chunk.position((int) address);
+            byte[] bytes = new byte[length];
+            chunk.get(bytes);
+            return bytes;
+        }
+
+        long allocated() {
+            return allocated;
+        }
+    }
+
+    /**
+     * Gives an integer id to each string, in the order they are added. Ids are assigned holding
+     * the lock of the store; values are read without it through the published copy of the list.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids;
+        private volatile String[] values;
+        private int count;
+
+        Dictionary() {
+            this.ids = new HashMap<>();
+            this.values = new String[16];
+        }
+
+        int idOf(String value) {
+            Integer id = ids.get(value);
+            if (id != null)
+                return id;
+            String[] current = values;
+            if (count == current.length)
+                current = Arrays.copyOf(current, count * 2);
+            current[count] = value;
+            values = current;
+            ids.put(value, count);
+            return count++;
+        }
+
+        Integer find(String value) {
+            return ids.get(value);
+        }
+
+        String valueOf(int id) {
+            return values[id];
+        }
+    }
+
+    /**
+     * A growable array of rows kept sorted in an order. Rows are inserted and read holding the lock of the store;
+     * the position of a row is found by binary search with a function which compares the rows of the array
+     * to the one looked for. The rows appended while the critiques are loaded are sorted all together
+     * before the array is used.
+     */
+    private final class SortedRows {
+        private final CritiqueOrder order;
+        private int[] sorted = new int[4];
+        private int count;
+        private boolean unsorted;
+
+        SortedRows(CritiqueOrder order) {
+            this.order = order;
+        }
+
+        void append(int row) {
+            if (count == sorted.length)
+                sorted = Arrays.copyOf(sorted, count * 2);
+            sorted[count++] = row;
+            unsorted = true;
+        }
+
+        /**
+         * Sorts the rows appended. The critiques are loaded by code, so in the order RECENT the rows are
+         * a single descending run, which is reversed in linear time.
+         */
+        void sort() {
+            if (!unsorted)
+                return;
+            Integer[] boxed = new Integer[count];
+            for (int i = 0; i < count; i++)
+                boxed[i] = sorted[i];
+            Arrays.sort(boxed, (row1, row2) -> compare(row1, row2, order));
+            for (int i = 0; i < count; i++)
+                sorted[i] = boxed[i];
+            unsorted = false;
+        }
+
+        void insert(int row) {
+            sort();
+            int at = after(other -> compare(other, row, order));
+            if (count == sorted.length)
+                sorted = Arrays.copyOf(sorted, count * 2);
+            System.arraycopy(sorted, at, sorted, at + 1, count - at);
+            sorted[at] = row;
+            count++;
+        }
+
+        /**
+         * @param compareToCursor compares a row of the array to the cursor
+         * @return the position of the first row which follows the cursor
+         */
+        int after(IntUnaryOperator compareToCursor) {
+            sort();
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareToCursor.applyAsInt(sorted[middle]) <= 0)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low;
+        }
+
+        int[] codes(int from, int limit) {
+            sort();
+            int to = (int) Math.min(count, (long) from + limit);
+            int[] codes = new int[Math.max(0, to - from)];
+            for (int i = from; i < to; i++)
+                codes[i - from] = codeOf(sorted[i]);
+            return codes;
+        }
+    }
+}
@@ -3,23 +3,40 @@ package persistence;
 import application.Critique;
 import application.CritiqueSections;
 import application.MenuEntry;
+import application.RestaurantOverview;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * It is the mapper of the table "critiques".
+ * The critiques are kept as objects in the heap or, if the system property critiques.store is "offheap",
+ * in a CritiqueColumnStore outside the heap.
+ */
 public class CritiquesMapper extends AbstractPersistenceMapper {
-    private HashSet<Critique> critiques;
+    public static final String STORE_PROPERTY = "critiques.store";
+    private Set<Critique> critiques;
+    private CritiqueColumnStore store;
     private DishCritiquesMapper dcm ;
+    private OverviewMapper om;
+    private Map<String, Integer> loadedCritiqueCounts;
 
 
-    public CritiquesMapper(DishCritiquesMapper dcm) throws SQLException {
+    public CritiquesMapper(DishCritiquesMapper dcm, OverviewMapper om, MenuEntryMapper mem) throws SQLException {
         super("CRITIQUES");
-        this.critiques = new HashSet<>();
+        if ("offheap".equalsIgnoreCase(System.getProperty(STORE_PROPERTY)))
+            this.store = new CritiqueColumnStore(mem::cacheIfAbsent);
+        else
+            this.critiques = ConcurrentHashMap.newKeySet();
         this.dcm = dcm;
+        this.om = om;
+        this.loadedCritiqueCounts = new HashMap<>();
         setUp();
     }
 
@@ -35,20 +52,48 @@ public class CritiquesMapper extends AbstractPersistenceMapper {
 
     @Override
     protected void updateCache(String OID, Object obj) {
-        this.critiques.add((Critique)obj);
+        if(store != null)
+            this.store.add((Critique)obj);
+        else
+            this.critiques.add((Critique)obj);
     }
 
     @Override
-    public synchronized void put(String OID, Object obj) throws SQLException {
-        Critique c = (Critique) obj;
-        c.setCode(Integer.parseInt(OID));
-        updateCache(Integer.toString(c.getCritiqueCode()),c);
-        PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?,?,?,?,?)");
-        setStringCritiquesTable(pstm,c);
-        pstm.execute();
-        this.dcm.put(Integer.toString(c.getCritiqueCode()),c);
-
+    public void put(String OID, Object obj) throws SQLException {
+        put(OID, (Critique) obj, null);
+    }
 
+    /**
+     * Method which inserts a new critique, the grades of its dishes and the new overview of the restaurant
+     * in a single transaction: either all the rows are written or none of them.
+     * The caches of this mapper and of OverviewMapper are updated only after the commit,
+     * so if the transaction fails nothing of the critique remains in memory.
+     * @param OID is the code of the critique
+     * @param c is the critique
+     * @param ro is the overview of the restaurant which includes the critique (it can be null)
+     * @throws SQLException
+     */
+    public void put(String OID, Critique c, RestaurantOverview ro) throws SQLException {
+        c.setCode(Integer.parseInt(OID));
+        PooledConnection conn = borrowConnection();
+        try {
+            conn.beginTransaction();
+            PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?,?,?,?,?)");
+            setStringCritiquesTable(pstm,c);
+            pstm.execute();
+            this.dcm.insertDishes(conn,OID,c);
+            if(ro != null)
+                this.om.updateTable(conn,c.getRestaurantCode(),ro);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            releaseConnection(conn);
+        }
+        cacheObject(OID,c);
+        if(ro != null)
+            this.om.cacheObject(c.getRestaurantCode(),ro);
     }
 
     @Override
@@ -59,24 +104,68 @@ public class CritiquesMapper extends AbstractPersistenceMapper {
     /**
      * Set the cache up when the system is started.
      * It instances all the critiques which are in the database.
+     * The critiques are read together with their dishes through a single streamed query,
+     * ordered by critique code so that the rows of each critique are consecutive.
      */
     public  void setUp() {
         try {
-            Statement stm = super.conn.createStatement();
-            ResultSet rs = stm.executeQuery("select * from "+super.tableName);
-            while (rs.next()){
-                Critique tmpCrit = createCritique(rs);
-                tmpCrit.setComment(rs.getString(9));
-                tmpCrit.voteDishes(dcm.getDishesGrades(Integer.toString(tmpCrit.getCritiqueCode())));
-                updateCache(rs.getString(1),tmpCrit);
+            int lastCode = 0;
+            PooledConnection conn = borrowConnection();
+            try (PreparedStatement pstm = conn.prepareStreamingStatement("SELECT c.*, " + dcm.getDishColumns("d")
+                    + " FROM " + tableName + " c " + dcm.getDishJoin("d", "c.CRITIQUE_COD")
+                    + " ORDER BY c.CRITIQUE_COD");
+                 ResultSet rs = pstm.executeQuery()) {
+                Critique tmpCrit = null;
+                HashMap<MenuEntry, Double> dishes = null;
+                while (rs.next()){
+                    if(tmpCrit == null || tmpCrit.getCritiqueCode() != rs.getInt(1)){
+                        if(tmpCrit != null)
+                            completeCritique(tmpCrit, dishes);
+                        tmpCrit = createCritique(rs);
+                        tmpCrit.setComment(rs.getString(9));
+                        dishes = new HashMap<>();
+                        lastCode = tmpCrit.getCritiqueCode();
+                    }
+                    MenuEntry me = dcm.readDish(rs, 10);
+                    if(me != null)
+                        dishes.put(me, dcm.readGrade(rs, 10));
+                }
+                if(tmpCrit != null)
+                    completeCritique(tmpCrit, dishes);
+                if(store != null)
+                    store.finishLoading();
+            } finally {
+                releaseConnection(conn);
             }
-            OIDCreator.getInstance().setCritiquesCode(Integer.parseInt(getLastObjectCode("CRITIQUE_COD")));
+            OIDCreator.getInstance().setCritiquesCode(lastCode);
         }
         catch (SQLException e){
             e.printStackTrace();
         }
     }
 
+    /**
+     * Method called by setUp when all the dishes of a critique have been read
+     * @param tmpCrit the critique
+     * @param dishes the dishes of the critique with their grades
+     */
+    private void completeCritique(Critique tmpCrit, HashMap<MenuEntry, Double> dishes){
+        tmpCrit.voteDishes(dishes);
+        if(store != null)
+            store.load(tmpCrit);
+        else
+            updateCache(Integer.toString(tmpCrit.getCritiqueCode()),tmpCrit);
+        loadedCritiqueCounts.merge(tmpCrit.getRestaurantCode(), 1, Integer::sum);
+    }
+
+    /**
+     * @return a map whose keys are the codes of the restaurants and values are the number of their critiques
+     * read from the database when the mapper was set up
+     */
+    protected Map<String, Integer> getLoadedCritiqueCounts() {
+        return loadedCritiqueCounts;
+    }
+
     /**
      * Method used to create a critique with the data of the DBMS
      *
@@ -109,10 +198,18 @@ public class CritiquesMapper extends AbstractPersistenceMapper {
 
     /**
      * Method called by PersistenceFacade class
-     *@return the cache of the critiques
+     *@return the cache of the critiques, which can be iterated while new critiques are added
+     * (with the off-heap store, a view whose critiques are rebuilt while it is iterated)
+     */
+    public Collection<Critique> getCritiques() {
+        return store != null ? store.asCollection() : critiques;
+    }
+
+    /**
+     * @return the off-heap store of the critiques, or null if they are kept in the heap
      */
-    public synchronized HashSet<Critique> getCritiques() {
-        return critiques;
+    public CritiqueColumnStore getStore() {
+        return store;
     }
 
     /**
@@ -138,9 +235,8 @@ public class CritiquesMapper extends AbstractPersistenceMapper {
      * @throws SQLException
      */
     private void setGradeSections(PreparedStatement pstm, Critique c) throws SQLException {
-        HashMap<CritiqueSections,Double> map = c.getSections();
-        for (int i = 0; i<CritiqueSections.values().length ; i++) {
-            double grade = map.get(CritiqueSections.values()[i]);
+        for (int i = 0; i<RestaurantOverview.CRITIQUE_SECTIONS.length ; i++) {
+            double grade = c.getGrade(RestaurantOverview.CRITIQUE_SECTIONS[i]);
             pstm.setString(i+4,Double.toString(grade));
         }
     }
@@ -6,7 +6,6 @@ import application.MenuEntry;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -38,18 +37,38 @@ public class DishCritiquesMapper extends AbstractPersistenceMapper {
     }
 
     @Override
-    public synchronized void  put(String OID, Object obj)throws SQLException {
+    public void  put(String OID, Object obj)throws SQLException {
         Critique c = (Critique)obj;
 
+        PooledConnection conn = borrowConnection();
+        try {
+            insertDishes(conn,OID,c);
+        } finally {
+            releaseConnection(conn);
+        }
+
+    }
+
+    /**
+     * Method called by CritiquesMapper to insert the grades of the dishes of a critique
+     * inside the transaction which inserts the critique.
+     * All the rows are sent to the database as a single batch.
+     * @param conn the connection of the transaction
+     * @param OID the code of the critique
+     * @param c the critique
+     * @throws SQLException
+     */
+    protected void insertDishes(PooledConnection conn, String OID, Critique c) throws SQLException {
+        if(c.getDishes().isEmpty())
+            return;
+        PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?)");
         for (Map.Entry<MenuEntry,Double> temp:c.getDishes().entrySet()) {
-            PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?)");
             pstm.setString(1,OID);
             pstm.setString(2,temp.getKey().getCod());
             pstm.setDouble(3,temp.getValue());
-            pstm.execute();
-
+            pstm.addBatch();
         }
-
+        pstm.executeBatch();
     }
 
     @Override
@@ -58,22 +77,50 @@ public class DishCritiquesMapper extends AbstractPersistenceMapper {
     }
 
     /**
-     * Method called by CritiquesMapper when the system is set up,
-     * in order to instance each critique with its MenuEntry
-     * @param critiqueCode
-     * @return the dishes of the critique , each one matched with its grade
+     * Method called by CritiquesMapper when the system is set up, in order to read the critiques
+     * together with their dishes in a single query.
+     * The columns are, in order: DISH_CODE, VOTO_DISH and the columns of MENUENTRY except DISH_COD.
+     * @param alias the alias used for this table in the query
+     * @return the list of columns which has to be selected
      */
-    protected HashMap<MenuEntry,Double> getDishesGrades(String critiqueCode) throws SQLException{
-        HashMap<MenuEntry, Double> gradeDish = new HashMap<>();
-
-        PreparedStatement pstm = conn.prepareStatement("SELECT DISH_CODE,VOTO_DISH FROM "+tableName+" WHERE BINARY CRITIQUE_CODE = ?" );
-        pstm.setInt(1, Integer.parseInt(critiqueCode));
-        ResultSet rs = pstm.executeQuery();
-        while (rs.next()){
-            gradeDish.put((MenuEntry) menuEntryMapper.get(Integer.toString(rs.getInt(1))),
-                    Double.parseDouble(rs.getString(2)));
-        }
+    protected String getDishColumns(String alias){
+        return alias+".DISH_CODE, "+alias+".VOTO_DISH, "+alias+"_m.DISH, "+alias+"_m.PRICE, "
+                +alias+"_m.RESTAURANT, "+alias+"_m.DISH_TYPE";
+    }
 
-        return gradeDish;
+    /**
+     * @param alias the alias used for this table in the query
+     * @param critiqueCode the column of the query which contains the code of the critique
+     * @return the join which adds to each critique its dishes (a row for each of them)
+     */
+    protected String getDishJoin(String alias, String critiqueCode){
+        return "LEFT JOIN "+tableName+" "+alias+" ON "+alias+".CRITIQUE_CODE = "+critiqueCode
+                +" LEFT JOIN "+menuEntryMapper.tableName+" "+alias+"_m ON "+alias+"_m.DISH_COD = "+alias+".DISH_CODE";
+    }
+
+    /**
+     * Method which builds the dish of the current row of a query which uses getDishColumns.
+     * If the dish has already been instanced by MenuEntryMapper that instance is returned.
+     * @param rs the ResultSet of the query
+     * @param column the index of the first column given by getDishColumns
+     * @return the dish, or null if the critique has no dishes or the dish does not exist anymore
+     * @throws SQLException
+     */
+    protected MenuEntry readDish(ResultSet rs, int column) throws SQLException {
+        String dishCode = rs.getString(column);
+        if(dishCode == null || rs.getString(column+2) == null)
+            return null;
+        return menuEntryMapper.cacheIfAbsent(new MenuEntry(rs.getString(column+2),rs.getDouble(column+3),
+                dishCode,rs.getString(column+4),rs.getString(column+5)));
+    }
+
+    /**
+     * @param rs the ResultSet of the query
+     * @param column the index of the first column given by getDishColumns
+     * @return the grade of the dish of the current row
+     * @throws SQLException
+     */
+    protected double readGrade(ResultSet rs, int column) throws SQLException {
+        return rs.getDouble(column+1);
     }
 }
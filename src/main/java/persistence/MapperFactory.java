@@ -1,40 +1,119 @@
 package persistence;
 
+import persistence.cache.CacheStats;
+
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A class which is the Factory of the mappers of the Persistence Framework.
  * It is implemented through Singleton pattern implementation.
  */
 public class MapperFactory {
+    private static final int BOOTSTRAP_THREADS = 4;
+
     private static MapperFactory instance = null;
     private Map<Class,IMapper> mappers;
+    private Map<String, Long> warmUpTimings;
 
     /**
      *Initialize a map which contains all the mappers( key : the Class Object of the mapper,
      * and value : is the instance of the mapper itself.
+     * The mappers which do not depend on each other are created (and their caches warmed up) in parallel:
+     * RestaurantsMapper waits for OverviewMapper and MenuEntryMapper, CritiquesMapper waits for
+     * DishCritiquesMapper, OverviewMapper and MenuEntryMapper, DishCritiquesMapper waits for MenuEntryMapper.
+     * When all of them are ready the overviews learn the number of critiques of their restaurants.
      * @throws SQLException
      */
     private MapperFactory()throws SQLException {
         this.mappers  = new HashMap<>();
-        OverviewMapper om = new OverviewMapper();
-        MenuEntryMapper mem = new MenuEntryMapper();
-        DishCritiquesMapper dcm = new DishCritiquesMapper(mem);
-        this.mappers.put(OverviewMapper.class, om);
-        this.mappers.put(MenuEntryMapper.class, mem);
-        this.mappers.put(RestaurantsMapper.class, new RestaurantsMapper(om,mem));
-        this.mappers.put(UserMapper.class, new UserMapper());
-        this.mappers.put(CritiquesMapper.class, new CritiquesMapper(dcm));
+        this.warmUpTimings = Collections.synchronizedMap(new LinkedHashMap<>());
+        ExecutorService executor = Executors.newFixedThreadPool(BOOTSTRAP_THREADS);
+        try {
+            CompletableFuture<OverviewMapper> om = warmUp(executor, "OverviewMapper", OverviewMapper::new);
+            CompletableFuture<MenuEntryMapper> mem = warmUp(executor, "MenuEntryMapper", MenuEntryMapper::new);
+            CompletableFuture<UserMapper> um = warmUp(executor, "UserMapper", UserMapper::new);
+            CompletableFuture<DishCritiquesMapper> dcm = warmUp(executor, "DishCritiquesMapper",
+                    () -> new DishCritiquesMapper(mem.join()), mem);
+            CompletableFuture<RestaurantsMapper> rm = warmUp(executor, "RestaurantsMapper",
+                    () -> new RestaurantsMapper(om.join(), mem.join()), om, mem);
+            CompletableFuture<CritiquesMapper> cm = warmUp(executor, "CritiquesMapper",
+                    () -> new CritiquesMapper(dcm.join(), om.join(), mem.join()), dcm, om, mem);
+
+            this.mappers.put(OverviewMapper.class, join(om));
+            this.mappers.put(MenuEntryMapper.class, join(mem));
+            this.mappers.put(RestaurantsMapper.class, join(rm));
+            this.mappers.put(UserMapper.class, join(um));
+            this.mappers.put(CritiquesMapper.class, join(cm));
+            join(om).restoreCritiqueCounts(join(cm).getLoadedCritiqueCounts(), join(cm).getCritiques());
+        } finally {
+            executor.shutdown();
+        }
     }
+
+    /**
+     * Interface used to create a mapper in the executor of the bootstrap
+     */
+    private interface MapperBuilder<T extends IMapper> {
+        T build() throws SQLException;
+    }
+
+    /**
+     * Method which creates a mapper in the executor as soon as the mappers it depends on are ready,
+     * and records how much time its creation took.
+     * @param executor the executor of the bootstrap
+     * @param name the name of the mapper, used for the timings
+     * @param builder the constructor of the mapper
+     * @param dependencies the mappers which have to be created before
+     * @return the future mapper
+     */
+    private <T extends IMapper> CompletableFuture<T> warmUp(ExecutorService executor, String name,
+                                                            MapperBuilder<T> builder,
+                                                            CompletableFuture<?>... dependencies) {
+        return CompletableFuture.allOf(dependencies).thenApplyAsync(v -> {
+            long start = System.currentTimeMillis();
+            try {
+                T mapper = builder.build();
+                long time = System.currentTimeMillis() - start;
+                warmUpTimings.put(name, time);
+                System.out.println(name + " ready in " + time + " ms");
+                return mapper;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Waits for a mapper, reporting the SQLException thrown by its constructor (if any)
+     * @param future the future mapper
+     * @return the mapper
+     * @throws SQLException
+     */
+    private <T extends IMapper> T join(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException)
+                throw (SQLException) e.getCause();
+            throw e;
+        }
+    }
+
     /**
      * 'Pattern Singleton Implementation'
      *
      * If the object has not already been instanced, it is instanced and it is returned.
      * @return instance(MapperFactory)
      */
-    public static MapperFactory getInstance()throws SQLException {
+    public static synchronized MapperFactory getInstance()throws SQLException {
         if(instance == null)
             instance = new MapperFactory();
         return instance;
@@ -43,4 +122,26 @@ public class MapperFactory {
     public Map<Class, IMapper> getMappers() {
         return mappers;
     }
+
+    /**
+     * @return a map whose keys are the names of the mappers and values are the milliseconds
+     * taken to create them and warm up their caches
+     */
+    public Map<String, Long> getWarmUpTimings() {
+        return warmUpTimings;
+    }
+
+    /**
+     * @return a map whose keys are the names of the mappers with a bounded cache and values are
+     * the counters of their caches
+     */
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (IMapper mapper : mappers.values()) {
+            CacheStats cs = ((AbstractPersistenceMapper) mapper).getCacheStats();
+            if (cs != null)
+                stats.put(mapper.getClass().getSimpleName(), cs);
+        }
+        return stats;
+    }
 }
@@ -4,26 +4,30 @@ import application.DishType;
 import application.MenuEntry;
 import application.MenuHandler;
 import application.restaurant_exception.EmptyMenuException;
+import persistence.cache.BoundedCache;
+import persistence.cache.CacheStats;
+import persistence.cache.MapperCache;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Map;
 
 
 /**
  * It is the mapper of the table "menuentry"
  */
 public class MenuEntryMapper extends AbstractPersistenceMapper {
-    private List<MenuEntry> menuEntries ;
+    private static final long DEFAULT_CACHE_SIZE = 50000;
+
+    private MapperCache<String, MenuEntry> menuEntries ;
 
 
     protected MenuEntryMapper() throws SQLException {
         super("MENUENTRY");
-        menuEntries = new ArrayList<>();
+        menuEntries = BoundedCache.fromSystemProperties("menuentries", DEFAULT_CACHE_SIZE);
         OIDCreator.getInstance().setMenuEntryCode(getLastObjectCode("DISH_COD"));
     }
 
@@ -31,66 +35,84 @@ public class MenuEntryMapper extends AbstractPersistenceMapper {
 
     @Override
     protected Object getObjectFromTable(String OID) throws SQLException {
-        PreparedStatement pstm = conn.prepareStatement("select * from "+tableName+" where DISH_COD = ?");
-        pstm.setString(1,OID);
-        ResultSet rs = pstm.executeQuery();
-        if(!rs.next())
-            throw new ObjectNotFoundException();
-        return new MenuEntry(rs.getString(2),rs.getDouble(3),rs.getString(1),OID,
-                rs.getString(5)) ;
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("select * from "+tableName+" where DISH_COD = ?");
+            pstm.setString(1,OID);
+            try (ResultSet rs = pstm.executeQuery()) {
+                if(!rs.next())
+                    throw new ObjectNotFoundException();
+                return new MenuEntry(rs.getString(2),rs.getDouble(3),rs.getString(1),
+                        rs.getString(4),rs.getString(5)) ;
+            }
+        } finally {
+            releaseConnection(conn);
+        }
     }
 
     @Override
     protected Object getObjectFromCache(String OID) {
-        for (MenuEntry me: menuEntries) {
-            if (me.getCod().equals(OID))
-                return me;
-        }
-        return null;
+        return menuEntries.get(OID);
+    }
+
+    /**
+     * Method which adds a dish to the cache only if it is not already there.
+     * @param me the dish
+     * @return the instance of the dish which is in the cache
+     */
+    protected MenuEntry cacheIfAbsent(MenuEntry me){
+        MenuEntry cached = menuEntries.putIfAbsent(me.getCod(), me);
+        return cached == null ? me : cached;
     }
 
     @Override
     protected void updateCache(String OID, Object obj) {
-        MenuEntry me = null;
-        for (MenuEntry m:menuEntries) {
-            if(m.getCod().equals(OID)){
-                me = m;
-                break;
-            }
-        }
-        if(me != null)
-            menuEntries.remove(me);
-        menuEntries.add((MenuEntry)obj);
+        menuEntries.put(OID,(MenuEntry)obj);
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return menuEntries.getStats();
     }
 
 
     @Override
-    public synchronized void put(String OID, Object obj)throws SQLException {
+    public void put(String OID, Object obj)throws SQLException {
         MenuEntry me = (MenuEntry)obj;
-        updateCache(OID,me);
-
-        PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?)");
-        pstm.setString(1,OID);
-        pstm.setString(2,me.getDish());
-        pstm.setString(3,Double.toString(me.getPrice()));
-        pstm.setString(4,me.getRestaurantCode());
-        pstm.setString(5,me.getType());
-        pstm.execute();
+        cacheObject(OID,me);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?)");
+            pstm.setString(1,OID);
+            pstm.setString(2,me.getDish());
+            pstm.setString(3,Double.toString(me.getPrice()));
+            pstm.setString(4,me.getRestaurantCode());
+            pstm.setString(5,me.getType());
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
+        }
 
     }
 
     @Override
-    public synchronized void updateTable(String OID, Object obj)throws SQLException {
+    public void updateTable(String OID, Object obj)throws SQLException {
         MenuEntry me = (MenuEntry) obj;
-        updateCache(OID,me);
-
-        PreparedStatement pstm = conn.prepareStatement("UPDATE " + tableName+" SET DISH =?, PRICE =?, " +
-                "DISH_TYPE =?,where DISH_COD = ?");
-        pstm.setString(1,me.getDish());
-        pstm.setDouble(2,me.getPrice());
-        pstm.setString(3,me.getType());
-        pstm.setString(4,me.getCod());
-        pstm.execute();
+        cacheObject(OID,me);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("UPDATE " + tableName+" SET DISH =?, PRICE =?, " +
+                    "DISH_TYPE =? where DISH_COD = ?");
+            pstm.setString(1,me.getDish());
+            pstm.setDouble(2,me.getPrice());
+            pstm.setString(3,me.getType());
+            pstm.setString(4,me.getCod());
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
+        }
 
     }
 
@@ -104,30 +126,72 @@ public class MenuEntryMapper extends AbstractPersistenceMapper {
     protected HashMap<DishType,ArrayList<MenuEntry>> getMenu(String OID_Restaurant) throws SQLException {
         HashMap<DishType,ArrayList<MenuEntry>> menu = new HashMap<>();
         menu  = MenuHandler.initializeMenu(menu);
-        Statement stm = conn.createStatement();
-        ResultSet rs = stm.executeQuery("select * from "+super.tableName + " where RESTAURANT ="+ OID_Restaurant);
-        if(!rs.isBeforeFirst())
-            throw new EmptyMenuException();
-        while (rs.next()){
-            MenuEntry me =  new MenuEntry(rs.getString(2),rs.getDouble(3),
-                    rs.getString(1),OID_Restaurant,rs.getString(5));
-            updateCache(me.getCod(),me);
-            menu.get(MenuHandler.stringConverter(rs.getString(5)))
-                    .add(me);
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("select * from "+super.tableName + " where RESTAURANT = ?");
+            pstm.setString(1,OID_Restaurant);
+            try (ResultSet rs = pstm.executeQuery()) {
+                if(!rs.isBeforeFirst())
+                    throw new EmptyMenuException();
+                while (rs.next()){
+                    MenuEntry me =  new MenuEntry(rs.getString(2),rs.getDouble(3),
+                            rs.getString(1),OID_Restaurant,rs.getString(5));
+                    cacheObject(me.getCod(),me);
+                    menu.get(MenuHandler.stringConverter(rs.getString(5)))
+                            .add(me);
+                }
+            }
+        } finally {
+            releaseConnection(conn);
         }
         return menu;
     }
 
+    /**
+     * Method called by RestaurantsMapper when the system is set up.
+     * It reads the dishes of all the restaurants with a single query and groups them by restaurant.
+     * @return a map whose keys are the codes of the restaurants and values are their menus
+     * (only restaurants with at least a dish are present)
+     * @throws SQLException
+     */
+    protected Map<String, HashMap<DishType,ArrayList<MenuEntry>>> loadAllMenus() throws SQLException {
+        Map<String, HashMap<DishType,ArrayList<MenuEntry>>> menus = new HashMap<>();
+        PooledConnection conn = borrowConnection();
+        try (PreparedStatement pstm = conn.prepareStreamingStatement("select * from "+super.tableName);
+             ResultSet rs = pstm.executeQuery()) {
+            while (rs.next()){
+                String restaurantCode = rs.getString(4);
+                HashMap<DishType,ArrayList<MenuEntry>> menu = menus.get(restaurantCode);
+                if(menu == null){
+                    menu = MenuHandler.initializeMenu(new HashMap<>());
+                    menus.put(restaurantCode, menu);
+                }
+                MenuEntry me = cacheIfAbsent(new MenuEntry(rs.getString(2),rs.getDouble(3),
+                        rs.getString(1),restaurantCode,rs.getString(5)));
+                menu.get(MenuHandler.stringConverter(rs.getString(5)))
+                        .add(me);
+            }
+        } finally {
+            releaseConnection(conn);
+        }
+        return menus;
+    }
+
     /**
      * Method which removes a MenuEntry from the table
      * @param OID is the code of the MenuEntry which has to be removed
      * @throws SQLException
      */
-    protected synchronized void remove(String OID) throws SQLException {
+    protected void remove(String OID) throws SQLException {
         removeFromCahce(OID);
-        PreparedStatement pstm = conn.prepareStatement("delete from "+ tableName+ " where DISH_COD =?");
-        pstm.setString(1,OID);
-        pstm.execute();
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("delete from "+ tableName+ " where DISH_COD =?");
+            pstm.setString(1,OID);
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
+        }
 
     }
 
@@ -136,12 +200,7 @@ public class MenuEntryMapper extends AbstractPersistenceMapper {
      * @param OID the code of the MenuEntry which has to be removed.
      *
      */
-    private void removeFromCahce(String OID){
-        MenuEntry me = null;
-        for (MenuEntry m: menuEntries) {
-            if(m.getCod().equals(OID))
-                me = m;
-        }
-        menuEntries.remove(me);
+    private synchronized void removeFromCahce(String OID){
+        menuEntries.remove(OID);
     }
 }
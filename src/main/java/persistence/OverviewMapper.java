@@ -1,25 +1,36 @@
 package persistence;
 
-import application.CritiqueSections;
+import application.Critique;
 import application.RestaurantOverview;
+import persistence.cache.BoundedCache;
+import persistence.cache.CacheStats;
+import persistence.cache.MapperCache;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * It is the mapper of te table "overview"
  */
 public class OverviewMapper extends AbstractPersistenceMapper {
 
-    private Map<String, RestaurantOverview> overview;
+    private static final long DEFAULT_CACHE_SIZE = 10000;
+
+    private MapperCache<String, RestaurantOverview> overview;
+    private Set<String> loadedRows;
 
     public OverviewMapper() throws SQLException {
         super("OVERVIEW");
-        this.overview = new HashMap<>();
+        this.overview = BoundedCache.fromSystemProperties("overviews", DEFAULT_CACHE_SIZE);
+        this.loadedRows = new HashSet<>();
     }
 
     /**
@@ -30,61 +41,157 @@ public class OverviewMapper extends AbstractPersistenceMapper {
      */
     @Override
     protected Object getObjectFromTable(String OID) throws SQLException {
-        Statement stm = conn.createStatement();
-        ResultSet rs = stm.executeQuery("select * from "+ super.tableName +" where BINARY RESTAURANT ="+ OID);
-        double [] grade = new double[5];
-        if(rs.next()) {
-            for (int i = 0; i < grade.length; i++) {
-                grade[i] = rs.getDouble(i + 2);
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("select * from "+ super.tableName +" where BINARY RESTAURANT = ?");
+            pstm.setString(1,OID);
+            try (ResultSet rs = pstm.executeQuery()) {
+                double [] grade = new double[5];
+                if(rs.next()) {
+                    for (int i = 0; i < grade.length; i++) {
+                        grade[i] = rs.getDouble(i + 2);
+
+                    }
+                }
+                return new RestaurantOverview(grade);
+            }
+        } finally {
+            releaseConnection(conn);
+        }
+
+    }
 
+    /**
+     * Method called by RestaurantsMapper when the system is set up.
+     * It reads the overviews of all the restaurants with a single query and puts them in the cache.
+     * @return a map whose keys are the codes of the restaurants and values are their overviews
+     * @throws SQLException
+     */
+    protected Map<String, RestaurantOverview> loadAll() throws SQLException {
+        Map<String, RestaurantOverview> overviews = new HashMap<>();
+        PooledConnection conn = borrowConnection();
+        try (PreparedStatement pstm = conn.prepareStreamingStatement("select * from "+ super.tableName);
+             ResultSet rs = pstm.executeQuery()) {
+            while (rs.next()) {
+                double [] grade = new double[5];
+                for (int i = 0; i < grade.length; i++) {
+                    grade[i] = rs.getDouble(i + 2);
+                }
+                overviews.put(rs.getString(1), new RestaurantOverview(grade));
             }
+        } finally {
+            releaseConnection(conn);
         }
-        return new RestaurantOverview(grade,rs.getDouble(7));
+        synchronized (this) {
+            for (Map.Entry<String, RestaurantOverview> e : overviews.entrySet())
+                updateCache(e.getKey(), e.getValue());
+            loadedRows.addAll(overviews.keySet());
+        }
+        return overviews;
+    }
 
+    /**
+     * Method called by MapperFactory when the system is set up, once CritiquesMapper has read all the critiques.
+     * The overviews read by loadAll learn how many critiques their means come from, so that the first critique
+     * added to each of them after a restart does not make CritiqueCatalogue read all the others again.
+     * A restaurant which has critiques but no row in the table has no means to rebuild the sums from:
+     * its overview is computed from its critiques.
+     * @param critiqueCounts a map whose keys are the codes of the restaurants and values are the number
+     * of their critiques
+     * @param critiques all the critiques read by CritiquesMapper
+     */
+    protected synchronized void restoreCritiqueCounts(Map<String, Integer> critiqueCounts,
+                                                      Collection<Critique> critiques) {
+        Map<String, List<Critique>> withoutRow = new HashMap<>();
+        for (Map.Entry<String, Integer> e : critiqueCounts.entrySet()) {
+            RestaurantOverview ro = overview.get(e.getKey());
+            if (ro == null)
+                continue;
+            if (loadedRows.contains(e.getKey()))
+                ro.restoreCritiqueCount(e.getValue());
+            else if (!ro.hasCritiqueCount())
+                withoutRow.put(e.getKey(), new ArrayList<>(e.getValue()));
+        }
+        loadedRows.clear();
+        if (withoutRow.isEmpty())
+            return;
+        for (Critique c : critiques) {
+            List<Critique> list = withoutRow.get(c.getRestaurantCode());
+            if (list != null)
+                list.add(c);
+        }
+        for (Map.Entry<String, List<Critique>> e : withoutRow.entrySet()) {
+            RestaurantOverview ro = overview.get(e.getKey());
+            if (ro != null)
+                ro.computeMean(e.getValue());
+        }
     }
 
     @Override
     protected Object getObjectFromCache(String OID) {
-        if(!overview.containsKey(OID))
-            return null;
         return overview.get(OID);
     }
 
     @Override
     protected void updateCache(String OID, Object obj) {
-        this.overview.remove(OID);
         this.overview.put(OID,(RestaurantOverview)obj);
     }
 
+    @Override
+    public CacheStats getCacheStats() {
+        return overview.getStats();
+    }
+
 
 
     @Override
-    public synchronized void put(String OID, Object obj) throws SQLException{
+    public void put(String OID, Object obj) throws SQLException{
         RestaurantOverview ro = (RestaurantOverview) obj;
-        updateCache(OID,ro);
-
-        PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?,?,?)");
-        pstm.setString(1,OID);
-        pstm.setString(7,Double.toString(ro.getMean()));
-        for(int i = 0; i< RestaurantOverview.CRITIQUE_SECTIONS.length; i++){
-            pstm.setString(i+2,Double.toString(ro.getSections()
-                    .get(RestaurantOverview.CRITIQUE_SECTIONS[i])));
+        cacheObject(OID,ro);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?,?,?)");
+            pstm.setString(1,OID);
+            pstm.setString(7,Double.toString(ro.getMean()));
+            for(int i = 0; i< RestaurantOverview.CRITIQUE_SECTIONS.length; i++){
+                pstm.setString(i+2,Double.toString(ro.getGrade(RestaurantOverview.CRITIQUE_SECTIONS[i])));
+            }
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
         }
-        pstm.execute();
 
 
     }
 
-    public synchronized void updateTable(String OID,Object obj)throws SQLException{
+    public void updateTable(String OID,Object obj)throws SQLException{
         RestaurantOverview ro = (RestaurantOverview)obj;
-        updateCache(OID,ro);
+        cacheObject(OID,ro);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            updateTable(conn,OID,ro);
+        } finally {
+            releaseConnection(conn);
+        }
 
+    }
+
+    /**
+     * Method which updates the row of the overview using the connection given,
+     * so that it can be part of a transaction. It does not update the cache.
+     * @param conn the connection to use
+     * @param OID is the code of the restaurant
+     * @param ro is the RestaurantOverview which has to be updated
+     * @throws SQLException
+     */
+    protected void updateTable(PooledConnection conn, String OID, RestaurantOverview ro) throws SQLException {
         String query = "UPDATE " + tableName+" SET MENU= ? , LOCATION =? , SERVIZIO = ? , CONTO = ? , CUCINA = ? , MEAN = ?" +
                 " where RESTAURANT = ?";
         PreparedStatement pstm = conn.prepareStatement(query);
         setQueryParameters(pstm,ro,OID);
         pstm.execute();
-
     }
 
     /**
@@ -97,9 +204,8 @@ public class OverviewMapper extends AbstractPersistenceMapper {
     private void setQueryParameters(PreparedStatement pstm,RestaurantOverview ro, String OID) throws SQLException {
         pstm.setString(7,OID);
         pstm.setDouble(6,ro.getMean());
-        HashMap<CritiqueSections,Double> tmp = ro.getSections();
-        for (int i =0; i<CritiqueSections.values().length; i++) {
-            pstm.setDouble(i+1,tmp.get(CritiqueSections.values()[i]));
+        for (int i =0; i<RestaurantOverview.CRITIQUE_SECTIONS.length; i++) {
+            pstm.setDouble(i+1,ro.getGrade(RestaurantOverview.CRITIQUE_SECTIONS[i]));
         }
     }
 
@@ -7,8 +7,9 @@ import application.RestaurantOverview;
 import application.User;
 
 import java.sql.SQLException;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A class which is the Facade Controller of the package persistence.
@@ -49,6 +50,15 @@ public class PersistenceFacade {
         return ((RestaurantsMapper)mapper.get(RestaurantsMapper.class)).getRestaurant();
     }
 
+    /**
+     * It gets the codes of the restaurants of an owner, through the index kept by RestaurantsMapper
+     * @param owner the username of the owner
+     * @return the codes of his restaurants
+     */
+    public Set<String> getRestaurantCodesByOwner(String owner){
+        return ((RestaurantsMapper)mapper.get(RestaurantsMapper.class)).getRestaurantCodesByOwner(owner);
+    }
+
     /**
      * Method called when a new Restaurant is added to the system.
      * It updates both the cache and the database.
@@ -89,20 +99,28 @@ public class PersistenceFacade {
      *
      * @return critiques saved in the mapper CritiquesMapper
      */
-    public HashSet<Critique> getCritiques(){
+    public Collection<Critique> getCritiques(){
         return ((CritiquesMapper)mapper.get(CritiquesMapper.class)).getCritiques();
     }
 
     /**
-     * Method used to add a new critique in the database and in the cache memory of CritiquesMapper
+     * @return the off-heap store of the critiques, or null if they are kept in the heap
+     */
+    public CritiqueColumnStore getCritiqueStore(){
+        return ((CritiquesMapper)mapper.get(CritiquesMapper.class)).getStore();
+    }
+
+    /**
+     * Method used to add a new critique in the database and in the cache memory of CritiquesMapper.
+     * The critique and the updated overview of its restaurant are written in a single transaction.
      *
      * @param critique the new critique
-     * @return
+     * @param overview the overview of the restaurant which includes the new critique
      */
-    public void addNewCritique(Critique critique)throws SQLException{
-        mapper.get(CritiquesMapper.class).put(
+    public void addNewCritique(Critique critique, RestaurantOverview overview)throws SQLException{
+        ((CritiquesMapper)mapper.get(CritiquesMapper.class)).put(
                 Integer.toString(OIDCreator.getInstance().getNewCritiquesCode()),
-                critique);
+                critique, overview);
     }
 
     /**
@@ -0,0 +1,162 @@
+package persistence;
+
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A physical connection to the database which is owned by the ConnectionPool.
+ * It is lent to one mapper at a time and it has to be given back to the pool through
+ * AbstractPersistenceMapper.releaseConnection when the mapper has finished its work.
+ */
+public class PooledConnection {
+
+    private static final int MAX_CACHED_STATEMENTS = 64;
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+    private long lastUsed;
+
+    /**
+     * Constructor of the class
+     * @param connection is the physical connection to the database
+     */
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= MAX_CACHED_STATEMENTS)
+                    return false;
+                closeStatement(eldest.getValue());
+                return true;
+            }
+        };
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the statement prepared for the sql text, which is created only the first time
+     * it is requested on this connection and then reused.
+     * The statement belongs to the connection: the caller must not close it, only its ResultSet.
+     * @param sql the query, with a '?' for each parameter
+     * @return the statement, with its parameters cleared
+     * @throws SQLException
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement pstm = statements.get(sql);
+        if (pstm == null || pstm.isClosed()) {
+            pstm = connection.prepareStatement(sql);
+            statements.put(sql, pstm);
+        } else {
+            pstm.clearParameters();
+        }
+        return pstm;
+    }
+
+    /**
+     * Returns a statement whose rows are streamed from the database one at a time instead of being
+     * loaded in memory all together. It is used to read whole tables when the system is set up.
+     * While its ResultSet is open the connection can not run other queries.
+     * It is not cached: the caller has to close it.
+     * @param sql the query
+     * @return the statement
+     * @throws SQLException
+     */
+    public PreparedStatement prepareStreamingStatement(String sql) throws SQLException {
+        PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        pstm.setFetchSize(Integer.MIN_VALUE);
+        return pstm;
+    }
+
+    /**
+     * Starts a transaction: the statements executed from now on are made permanent only by commit.
+     * @throws SQLException
+     */
+    public void beginTransaction() throws SQLException {
+        connection.setAutoCommit(false);
+    }
+
+    public void commit() throws SQLException {
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Undoes the statements executed since beginTransaction.
+     * Errors are only printed, since it is called while another exception is being handled.
+     */
+    public void rollback() {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return true if a transaction has been started and neither committed nor rolled back
+     */
+    boolean inTransaction() {
+        try {
+            return !connection.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method called by the pool before lending the connection, if it has not been used for a while.
+     * @param timeout seconds to wait for the answer of the database
+     * @return true if the database answered and the connection can still be used
+     */
+    boolean isValid(int timeout) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The driver closes the connection by itself when the communication with the database is lost,
+     * so a closed connection is never given back to the idle ones.
+     * @return true if the connection has been closed
+     */
+    boolean isClosed() {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    void close() {
+        for (PreparedStatement pstm : statements.values())
+            closeStatement(pstm);
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void closeStatement(PreparedStatement pstm) {
+        try {
+            pstm.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        this.lastUsed = System.currentTimeMillis();
+    }
+}
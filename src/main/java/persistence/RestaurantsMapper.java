@@ -1,14 +1,15 @@
 package persistence;
 
+import application.DishType;
+import application.MenuEntry;
 import application.Restaurant;
 import application.RestaurantOverview;
-import application.restaurant_exception.EmptyMenuException;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * It is the mapper of the table "restaurants"
@@ -16,6 +17,8 @@ import java.util.*;
 public class RestaurantsMapper extends AbstractPersistenceMapper {
 
     private Map<String, Restaurant> restaurant ;
+    private Map<String, Set<String>> restaurantsByOwner;
+    private Map<String, String> ownerOf;
 
 
     /**
@@ -25,7 +28,9 @@ public class RestaurantsMapper extends AbstractPersistenceMapper {
      */
     public RestaurantsMapper(OverviewMapper om, MenuEntryMapper mem) throws SQLException {
         super("RESTAURANTS");
-        this.restaurant = new HashMap<>();
+        this.restaurant = new ConcurrentHashMap<>();
+        this.restaurantsByOwner = new ConcurrentHashMap<>();
+        this.ownerOf = new ConcurrentHashMap<>();
         setUp(om, mem);
     }
 
@@ -36,46 +41,65 @@ public class RestaurantsMapper extends AbstractPersistenceMapper {
 
     @Override
     protected Object getObjectFromCache(String OID) {
-        if(this.restaurant.containsKey(OID))
-            return this.restaurant.get(OID);
-        return null;
+        return this.restaurant.get(OID);
     }
 
+    /**
+     * Method which updates the cache and the index of the restaurants by owner.
+     * If the owner of the restaurant has changed, the restaurant is moved from the old owner to the new one.
+     */
     @Override
     protected void updateCache(String OID,Object obj) {
-        this.restaurant.remove(OID);
-        this.restaurant.put(OID,(Restaurant)obj);
+        Restaurant r = (Restaurant)obj;
+        this.restaurant.put(OID,r);
+        String previous = this.ownerOf.put(OID,r.getOwner());
+        if(previous != null && !previous.equals(r.getOwner())) {
+            Set<String> codes = this.restaurantsByOwner.get(previous);
+            if(codes != null)
+                codes.remove(OID);
+        }
+        this.restaurantsByOwner.computeIfAbsent(r.getOwner(), owner -> ConcurrentHashMap.newKeySet()).add(OID);
     }
 
 
     @Override
-    public synchronized void put(String OID, Object obj) throws SQLException{
+    public void put(String OID, Object obj) throws SQLException{
         Restaurant r = (Restaurant)obj;
-        updateCache(OID,r);
-
-        PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?)");
-        pstm.setString(1,OID);
-        pstm.setString(2,r.getName());
-        pstm.setString(3,r.getAddress());
-        pstm.setString(4,r.getCity());
-        pstm.setString(5,r.getOwner());
-        pstm.execute();
+        cacheObject(OID,r);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?)");
+            pstm.setString(1,OID);
+            pstm.setString(2,r.getName());
+            pstm.setString(3,r.getAddress());
+            pstm.setString(4,r.getCity());
+            pstm.setString(5,r.getOwner());
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
+        }
 
     }
 
     @Override
-    public synchronized void updateTable(String OID, Object obj)throws SQLException {
+    public void updateTable(String OID, Object obj)throws SQLException {
         Restaurant r = (Restaurant)obj;
-        updateCache(OID,r);
-
-        PreparedStatement pstm = conn.prepareStatement("UPDATE " + tableName+" SET NAME=?, ADDRESS=?, CITY=?," +
-                " OWNER=?  WHERE BINARY COD_REST=? ");
-        pstm.setString(1,r.getName());
-        pstm.setString(2,r.getAddress());
-        pstm.setString(3,r.getCity());
-        pstm.setString(4,r.getOwner());
-        pstm.setString(5,OID);
-        pstm.execute();
+        cacheObject(OID,r);
+
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement pstm = conn.prepareStatement("UPDATE " + tableName+" SET NAME=?, ADDRESS=?, CITY=?," +
+                    " OWNER=?  WHERE BINARY COD_REST=? ");
+            pstm.setString(1,r.getName());
+            pstm.setString(2,r.getAddress());
+            pstm.setString(3,r.getCity());
+            pstm.setString(4,r.getOwner());
+            pstm.setString(5,OID);
+            pstm.execute();
+        } finally {
+            releaseConnection(conn);
+        }
 
 
     }
@@ -83,30 +107,53 @@ public class RestaurantsMapper extends AbstractPersistenceMapper {
     /**
      * Method called when RestaurantMapper Class is created.(when the system is set up)
      * It populates the cache with the restaurant registered to the system.
+     * The overviews and the menus of all the restaurants are read first, with a single query each,
+     * and then matched with the restaurants in memory.
      * @throws SQLException
      */
     protected void setUp(OverviewMapper om, MenuEntryMapper mem) throws SQLException {
-        Statement stm = super.conn.createStatement();
-        ResultSet rs = stm.executeQuery("select * from "+super.tableName);
-        while (rs.next()){
-            Restaurant tmp = new Restaurant(rs.getString(2),rs.getString(3),
-                    rs.getString(5),rs.getString(4));
-            tmp.setOverview(((RestaurantOverview) om.get(rs.getString(1))));
-            try{
-                tmp.addMenu(mem.getMenu(rs.getString(1)));
-            }catch(EmptyMenuException e){
+        Map<String, RestaurantOverview> overviews = om.loadAll();
+        Map<String, HashMap<DishType, ArrayList<MenuEntry>>> menus = mem.loadAllMenus();
+        int lastCode = 0;
+        PooledConnection conn = borrowConnection();
+        try (PreparedStatement pstm = conn.prepareStreamingStatement("select * from "+super.tableName);
+             ResultSet rs = pstm.executeQuery()) {
+            while (rs.next()){
+                String code = rs.getString(1);
+                Restaurant tmp = new Restaurant(rs.getString(2),rs.getString(3),
+                        rs.getString(5),rs.getString(4));
+                RestaurantOverview ro = overviews.get(code);
+                if(ro == null){
+                    // computed from the critiques of the restaurant (if any) by OverviewMapper.restoreCritiqueCounts
+                    ro = new RestaurantOverview(new double[RestaurantOverview.CRITIQUE_SECTIONS.length]);
+                    om.cacheObject(code,ro);
+                }
+                tmp.setOverview(ro);
+                if(menus.containsKey(code))
+                    tmp.addMenu(menus.get(code));
+                updateCache(code,tmp);
+                lastCode = Math.max(lastCode, Integer.parseInt(code));
             }
-            this.restaurant.put(rs.getString(1),tmp);
-
+        } finally {
+            releaseConnection(conn);
         }
 
-        OIDCreator.getInstance().setRestaurantCode(getLastObjectCode("COD_REST"));
+        OIDCreator.getInstance().setRestaurantCode(Integer.toString(lastCode));
 
     }
 
 
 
-    public synchronized Map<String, Restaurant> getRestaurant() {
+    public Map<String, Restaurant> getRestaurant() {
         return restaurant;
     }
+
+    /**
+     * @param owner the username of the owner
+     * @return the codes of the restaurants of the owner (empty if he has none)
+     */
+    public Set<String> getRestaurantCodesByOwner(String owner) {
+        Set<String> codes = restaurantsByOwner.get(owner);
+        return codes == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(codes);
+    }
 }
@@ -2,17 +2,22 @@ package persistence;
 
 import application.User;
 import application.UserType;
+import persistence.cache.BoundedCache;
+import persistence.cache.CacheStats;
+import persistence.cache.MapperCache;
+
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
 
 /**
  * It is the mapper of the table "USERS"
  */
 public class UserMapper extends AbstractPersistenceMapper{
 
-    private HashSet<User> user;
+    private static final long DEFAULT_CACHE_SIZE = 10000;
+
+    private MapperCache<String, User> user;
 
     /**
      * Constructor of the class
@@ -20,7 +25,7 @@ public class UserMapper extends AbstractPersistenceMapper{
      */
     public UserMapper() throws SQLException{
         super("USERS");
-        this.user = new HashSet<>();
+        this.user = BoundedCache.fromSystemProperties("users", DEFAULT_CACHE_SIZE);
     }
 
     /**
@@ -32,20 +37,24 @@ public class UserMapper extends AbstractPersistenceMapper{
      */
     @Override
     protected Object getObjectFromTable(String OID) throws SQLException {
-        PreparedStatement stm = conn.prepareStatement("SELECT * from "+super.tableName+" where BINARY USERNAME = ?");
-        stm.setString(1,OID);
-        ResultSet rs = stm.executeQuery();
-        if (!rs.isBeforeFirst())
-            throw new InvalidUsernameException("username inesistente");
-        String [] tempCredential = new String[4];
-        if(rs.next()) {
-            for (int i=0; i<tempCredential.length; i++){
-                tempCredential[i] = rs.getString(i+1);
+        PooledConnection conn = borrowConnection();
+        try {
+            PreparedStatement stm = conn.prepareStatement("SELECT * from "+super.tableName+" where BINARY USERNAME = ?");
+            stm.setString(1,OID);
+            try (ResultSet rs = stm.executeQuery()) {
+                if (!rs.isBeforeFirst())
+                    throw new InvalidUsernameException("username inesistente");
+                String [] tempCredential = new String[4];
+                if(rs.next()) {
+                    for (int i=0; i<tempCredential.length; i++){
+                        tempCredential[i] = rs.getString(i+1);
+                    }
+                }
+                return new User(tempCredential, UserType.valueOf(rs.getString(5)));
             }
+        } finally {
+            releaseConnection(conn);
         }
-        User user = new User(tempCredential, UserType.valueOf(rs.getString(5)));
-        rs.close();
-        return user;
     }
 
     /**
@@ -56,25 +65,17 @@ public class UserMapper extends AbstractPersistenceMapper{
      */
     @Override
     protected Object getObjectFromCache(String OID) {
-        for(User user : this.user){
-            if(user.getUsername().equals(OID))
-                return user;
-        }
-        return null;
+        return this.user.get(OID);
     }
 
     @Override
     protected void updateCache(String OID, Object obj) {
-        User u = null;
-        for (User tmp : this.user) {
-            if(OID.equals(tmp.getUsername())) {
-                u = tmp;
-                break;
-            }
-        }
-        if(u != null)
-            this.user.remove(u);
-        this.user.add((User) obj);
+        this.user.put(OID,(User) obj);
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return user.getStats();
     }
 
     /**
@@ -85,9 +86,11 @@ public class UserMapper extends AbstractPersistenceMapper{
      */
     @Override
     public void put(String OID, Object obj) {
-        updateCache(OID,obj);
+        cacheObject(OID,obj);
         User u = (User)obj;
+        PooledConnection conn = null;
         try {
+            conn = borrowConnection();
             PreparedStatement pstm = conn.prepareStatement("INSERT INTO "+tableName+" VALUES(?,?,?,?,?)");
             pstm.setString(1, OID);
             pstm.setString(2, u.getPassword());
@@ -100,15 +103,20 @@ public class UserMapper extends AbstractPersistenceMapper{
             e.printStackTrace();
             System.out.println("SQLException: " + e.getMessage());
         }
+        finally {
+            releaseConnection(conn);
+        }
     }
 
     @Override
     public void updateTable(String OID, Object obj) {
-        updateCache(OID,obj);
+        cacheObject(OID,obj);
         User u = (User)obj;
+        PooledConnection conn = null;
         try{
-            PreparedStatement pstm = conn.prepareStatement("UPDATE "+tableName+" VALUES PASSWORD=?, NAME=?, " +
-                    " SURNAME=? WHERE USERNAME=?");
+            conn = borrowConnection();
+            PreparedStatement pstm = conn.prepareStatement("UPDATE "+tableName+" SET PASSWORD=?, NAME=?, " +
+                    " SURNAME=? WHERE BINARY USERNAME=?");
             pstm.setString(1,u.getPassword());
             pstm.setString(2,u.getName());
             pstm.setString(3,u.getSurname());
@@ -116,6 +124,8 @@ public class UserMapper extends AbstractPersistenceMapper{
             pstm.execute();
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            releaseConnection(conn);
         }
 
     }
@@ -125,7 +135,6 @@ public class UserMapper extends AbstractPersistenceMapper{
      * @param user, to add in database
      */
     public void signUpUser(User user){
-        updateCache(user.getUsername(), user);
         put(user.getUsername(), user);
     }
 
@@ -0,0 +1,347 @@
+package persistence.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A MapperCache which holds at most a given number of objects and drops the ones chosen by its
+ * EvictionPolicy when it is full.
+ * Objects can also be given a time to live, after which they are read again from the database.
+ *
+ * The objects are kept in a ConcurrentHashMap, so reading them does not wait for the other threads;
+ * the order used by the policy is updated holding a lock, which reads only try to take:
+ * under contention a read is simply not recorded by the policy.
+ * @param <K> the type of the keys
+ * @param <V> the type of the objects
+ */
+public class BoundedCache<K, V> implements MapperCache<K, V> {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<V> {
+        final V value;
+        final long expiresAt;
+        Segment segment;
+
+        Node(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now >= expiresAt;
+        }
+    }
+
+    private final EvictionPolicy policy;
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterWrite;
+
+    private final ConcurrentHashMap<K, Node<V>> data;
+    private final ReentrantLock lock;
+    private final LinkedHashMap<K, Node<V>> window;
+    private final LinkedHashMap<K, Node<V>> probation;
+    private final LinkedHashMap<K, Node<V>> protectedSegment;
+    private long windowSize;
+    private long probationSize;
+    private long protectedSize;
+    private final FrequencySketch sketch;
+    private final CacheStats stats;
+
+    /**
+     * Constructor of the class, for a cache of objects which never expire
+     * @param policy the eviction policy
+     * @param maximumSize the maximum number of objects
+     */
+    public BoundedCache(EvictionPolicy policy, long maximumSize) {
+        this(policy, maximumSize, 0);
+    }
+
+    /**
+     * Constructor of the class
+     * @param policy the eviction policy
+     * @param maximumSize the maximum number of objects
+     * @param expireAfterWrite milliseconds after which an object is dropped (0 if it never expires)
+     */
+    public BoundedCache(EvictionPolicy policy, long maximumSize, long expireAfterWrite) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("The maximum size of the cache has to be positive");
+        this.policy = policy;
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+        if (policy == EvictionPolicy.TINY_LFU) {
+            this.windowMaximum = Math.max(1, (long) (maximumSize * WINDOW_RATIO));
+            this.protectedMaximum = (long) ((maximumSize - windowMaximum) * PROTECTED_RATIO);
+            this.sketch = new FrequencySketch(maximumSize);
+        } else {
+            this.windowMaximum = 0;
+            this.protectedMaximum = 0;
+            this.sketch = null;
+        }
+        this.data = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        this.stats = new CacheStats();
+    }
+
+    /**
+     * Creates a cache configured through the system properties cache.NAME.size (the maximum number
+     * of objects), cache.NAME.policy (LRU or TINY_LFU, which is the default) and cache.NAME.ttl
+     * (the milliseconds after which an object expires, 0 by default).
+     * @param name the name of the cache in the properties
+     * @param defaultSize the maximum number of objects if cache.NAME.size is not set
+     * @return the cache
+     */
+    public static <K, V> BoundedCache<K, V> fromSystemProperties(String name, long defaultSize) {
+        String prefix = "cache." + name + ".";
+        EvictionPolicy policy = EvictionPolicy.valueOf(
+                System.getProperty(prefix + "policy", EvictionPolicy.TINY_LFU.name()).toUpperCase());
+        long size = Long.getLong(prefix + "size", defaultSize);
+        long ttl = Long.getLong(prefix + "ttl", 0L);
+        return new BoundedCache<>(policy, size, ttl);
+    }
+
+    @Override
+    public V get(K key) {
+        Node<V> node = data.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+        if (expireAfterWrite > 0 && node.isExpired(System.currentTimeMillis())) {
+            expire(key, node);
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        if (lock.tryLock()) {
+            try {
+                onAccess(key, node);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Node<V> node = new Node<>(value, expireAfterWrite > 0 ? System.currentTimeMillis() + expireAfterWrite : 0);
+        lock.lock();
+        try {
+            Node<V> old = data.put(key, node);
+            Segment oldSegment = old != null ? old.segment : null;
+            if (old != null)
+                unlink(key, old);
+            if (sketch != null)
+                sketch.increment(key);
+            if (policy == EvictionPolicy.LRU)
+                link(key, node, Segment.PROBATION);
+            else if (oldSegment != null && oldSegment != Segment.WINDOW)
+                link(key, node, oldSegment);
+            else
+                link(key, node, Segment.WINDOW);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        lock.lock();
+        try {
+            Node<V> node = data.get(key);
+            if (node != null) {
+                if (expireAfterWrite == 0 || !node.isExpired(System.currentTimeMillis())) {
+                    onAccess(key, node);
+                    return node.value;
+                }
+                expire(key, node);
+            }
+            put(key, value);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        lock.lock();
+        try {
+            Node<V> node = data.remove(key);
+            if (node != null)
+                unlink(key, node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Method called holding the lock when an object is read.
+     * With TINY_LFU an object of the probation segment read again is promoted to the protected one.
+     */
+    private void onAccess(K key, Node<V> node) {
+        if (data.get(key) != node)
+            return;
+        if (sketch != null)
+            sketch.increment(key);
+        switch (node.segment) {
+            case WINDOW:
+                window.get(key);
+                break;
+            case PROBATION:
+                if (policy == EvictionPolicy.LRU) {
+                    probation.get(key);
+                } else {
+                    unlink(key, node);
+                    link(key, node, Segment.PROTECTED);
+                    while (protectedSize > protectedMaximum && !protectedSegment.isEmpty()) {
+                        Map.Entry<K, Node<V>> eldest = eldest(protectedSegment);
+                        unlink(eldest.getKey(), eldest.getValue());
+                        link(eldest.getKey(), eldest.getValue(), Segment.PROBATION);
+                    }
+                }
+                break;
+            case PROTECTED:
+                protectedSegment.get(key);
+                break;
+        }
+    }
+
+    /**
+     * Drops objects until the cache is within its maximum size.
+     * With LRU the least recently used objects are dropped. With TINY_LFU the objects which leave the window
+     * replace the least recently used ones of the main segments only if they have been requested more often.
+     */
+    private void evict() {
+        if (policy == EvictionPolicy.LRU) {
+            while (probationSize > maximumSize) {
+                Map.Entry<K, Node<V>> eldest = eldest(probation);
+                evict(eldest.getKey(), eldest.getValue());
+            }
+            return;
+        }
+        long mainMaximum = maximumSize - windowMaximum;
+        while (windowSize > windowMaximum) {
+            Map.Entry<K, Node<V>> eldest = eldest(window);
+            K candidateKey = eldest.getKey();
+            Node<V> candidate = eldest.getValue();
+            unlink(candidateKey, candidate);
+            if (mainMaximum == 0) {
+                evict(candidateKey, candidate);
+                continue;
+            }
+            boolean admitted = true;
+            while (probationSize + protectedSize >= mainMaximum) {
+                Map.Entry<K, Node<V>> victim = probation.isEmpty() ? eldest(protectedSegment) : eldest(probation);
+                if (sketch.frequency(candidateKey) <= sketch.frequency(victim.getKey())) {
+                    admitted = false;
+                    break;
+                }
+                evict(victim.getKey(), victim.getValue());
+            }
+            if (admitted)
+                link(candidateKey, candidate, Segment.PROBATION);
+            else
+                evict(candidateKey, candidate);
+        }
+    }
+
+    private void evict(K key, Node<V> node) {
+        if (node.segment != null)
+            unlink(key, node);
+        data.remove(key, node);
+        stats.recordEviction();
+    }
+
+    private void expire(K key, Node<V> node) {
+        lock.lock();
+        try {
+            if (data.remove(key, node)) {
+                unlink(key, node);
+                stats.recordExpiration();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void link(K key, Node<V> node, Segment segment) {
+        node.segment = segment;
+        switch (segment) {
+            case WINDOW:
+                window.put(key, node);
+                windowSize++;
+                break;
+            case PROBATION:
+                probation.put(key, node);
+                probationSize++;
+                break;
+            case PROTECTED:
+                protectedSegment.put(key, node);
+                protectedSize++;
+                break;
+        }
+    }
+
+    private void unlink(K key, Node<V> node) {
+        if (node.segment == null)
+            return;
+        switch (node.segment) {
+            case WINDOW:
+                if (window.remove(key, node))
+                    windowSize--;
+                break;
+            case PROBATION:
+                if (probation.remove(key, node))
+                    probationSize--;
+                break;
+            case PROTECTED:
+                if (protectedSegment.remove(key, node))
+                    protectedSize--;
+                break;
+        }
+        node.segment = null;
+    }
+
+    private static <K, V> Map.Entry<K, V> eldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+        return iterator.next();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache[policy=" + policy + ", size=" + size() + ", maximumSize=" + maximumSize
+                + ", " + stats + "]";
+    }
+}
@@ -0,0 +1,68 @@
+package persistence.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The counters of a MapperCache
+ */
+public class CacheStats {
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final AtomicLong expirations;
+
+    public CacheStats() {
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.expirations = new AtomicLong();
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    void recordExpiration() {
+        expirations.incrementAndGet();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    /**
+     * @return the fraction of the requests which found the object in the cache (1 if there were no requests)
+     */
+    public double getHitRate() {
+        long h = getHitCount();
+        long total = h + getMissCount();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", expirations=" + getExpirationCount() + "]";
+    }
+}
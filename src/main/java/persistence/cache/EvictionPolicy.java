@@ -0,0 +1,17 @@
+package persistence.cache;
+
+/**
+ * The policies BoundedCache can use to choose which object has to be dropped when it is full.
+ */
+public enum EvictionPolicy {
+    /**
+     * The least recently used object is dropped
+     */
+    LRU,
+    /**
+     * New objects are kept in a small LRU window; when they leave it they enter the main part of the
+     * cache only if they have been requested more often than the object they would replace (W-TinyLFU).
+     * It protects the cache from scans of objects which are requested only once.
+     */
+    TINY_LFU
+}
@@ -0,0 +1,82 @@
+package persistence.cache;
+
+/**
+ * A Count-Min sketch which estimates how many times each key has been requested recently,
+ * using a fixed amount of memory whatever the number of keys.
+ * The counters are halved periodically, so that keys which were popular in the past fade away.
+ * It is not thread safe: BoundedCache uses it holding its lock.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xb3bbd9a3, 0x6d2b79f5, 0x85ebca6b};
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor of the class
+     * @param capacity the maximum number of objects of the cache
+     */
+    FrequencySketch(long capacity) {
+        int width = 16;
+        while (width < capacity && width < (1 << 24))
+            width <<= 1;
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Records a request of the key
+     * @param key the key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            if (table[i][index] < MAX_COUNT) {
+                table[i][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize)
+            reset();
+    }
+
+    /**
+     * @param key the key
+     * @return the estimated number of recent requests of the key
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++)
+            frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+        return frequency;
+    }
+
+    private void reset() {
+        for (int[] row : table) {
+            for (int i = 0; i < row.length; i++)
+                row[i] >>>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
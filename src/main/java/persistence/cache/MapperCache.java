@@ -0,0 +1,44 @@
+package persistence.cache;
+
+/**
+ * Interface for the caches in which the mappers keep the objects already read from the database.
+ * A cache may drop its objects at any time (because it is full or because they have expired):
+ * the mapper then reads them again from its table.
+ * @param <K> the type of the keys (the OID of the objects)
+ * @param <V> the type of the objects
+ */
+public interface MapperCache<K, V> {
+
+    /**
+     * @param key the key of the object
+     * @return the object, or null if it is not in the cache
+     */
+    V get(K key);
+
+    /**
+     * Adds an object to the cache, replacing the one with the same key (if any)
+     * @param key the key of the object
+     * @param value the object
+     */
+    void put(K key, V value);
+
+    /**
+     * Adds an object to the cache only if there is not already one with the same key
+     * @param key the key of the object
+     * @param value the object
+     * @return the object which was already in the cache, or null if the given one has been added
+     */
+    V putIfAbsent(K key, V value);
+
+    void remove(K key);
+
+    /**
+     * @return the number of objects in the cache
+     */
+    long size();
+
+    /**
+     * @return the counters of hits, misses and evictions of the cache
+     */
+    CacheStats getStats();
+}
@@ -27,6 +27,29 @@ import static org.junit.Assert.assertEquals;
             assertEquals(5.6,ro.getMean(),delta);
         }
 
+        @Test
+        public void restoredCountTest(){
+            RestaurantOverview computed = createRestaurantOverview();
+            double[] means = new double[RestaurantOverview.CRITIQUE_SECTIONS.length];
+            for (int i = 0; i < means.length; i++)
+                means[i] = computed.getGrade(RestaurantOverview.CRITIQUE_SECTIONS[i]);
+            RestaurantOverview restored = new RestaurantOverview(means, 2);
+            Critique c = new Critique("","",0);
+            c.writeVotes(new double[]{9,8,1,2});
+            c.voteDishes(getMenuEntryGrades());
+            computed.addCritique(c);
+            restored.addCritique(c);
+            assertEquals(3, restored.getCritiqueCount());
+            for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS)
+                assertEquals(computed.getGrade(section), restored.getGrade(section), delta);
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void unknownCountTest(){
+            new RestaurantOverview(new double[RestaurantOverview.CRITIQUE_SECTIONS.length])
+                    .addCritique(new Critique("","",0));
+        }
+
         private HashSet<Critique> getCritiqueSet(){
             HashSet<Critique> list = new HashSet<>();
             Critique c1 = new Critique("","",0);
@@ -0,0 +1,160 @@
+package application;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of CritiqueBitmapIndex class.
+ */
+public class CritiqueBitmapIndexTest {
+
+    private static Critique critique(int code, String critic, String restaurant, double menu, double location,
+                                     double servizio, double conto, double cucina) {
+        Critique c = new Critique(critic, restaurant, code);
+        c.writeVotes(new double[]{menu, location, servizio, conto});
+        HashMap<MenuEntry, Double> dishes = new HashMap<>();
+        dishes.put(new MenuEntry("", 0., "", restaurant, "PRIMO"), cucina);
+        c.voteDishes(dishes);
+        return c;
+    }
+
+    private static List<Critique> randomCritiques(int n) {
+        Random random = new Random(42);
+        List<Critique> critiques = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            critiques.add(critique(i, "critic" + random.nextInt(5), "" + random.nextInt(8),
+                    1 + random.nextInt(10), 1 + random.nextInt(10), 1 + random.nextInt(10),
+                    1 + random.nextInt(10), 1 + random.nextInt(10)));
+        return critiques;
+    }
+
+    private static List<Critique> scan(List<Critique> critiques, CritiqueQuery query) {
+        List<Critique> selected = new ArrayList<>();
+        for (Critique c : critiques) {
+            if (query.getRestaurantCode() != null && !query.getRestaurantCode().equals(c.getRestaurantCode()))
+                continue;
+            if (query.getCritic() != null && !query.getCritic().equals(c.getCritico()))
+                continue;
+            if (query.getMinMean() != null && c.getMeanCrit() < query.getMinMean())
+                continue;
+            boolean ok = true;
+            for (CritiqueSections section : query.getMinGrades().keySet())
+                ok &= c.getGrade(section) >= query.getMinGrades().get(section);
+            if (ok)
+                selected.add(c);
+        }
+        return selected;
+    }
+
+    private static List<CritiqueQuery> queries() {
+        List<CritiqueQuery> queries = new ArrayList<>();
+        queries.add(new CritiqueQuery());
+        queries.add(new CritiqueQuery().ofRestaurant("3"));
+        queries.add(new CritiqueQuery().byCritic("critic2"));
+        queries.add(new CritiqueQuery().ofRestaurant("3").byCritic("critic2"));
+        queries.add(new CritiqueQuery().withMinGrade(CritiqueSections.SERVIZIO, 7));
+        queries.add(new CritiqueQuery().withMinGrade(CritiqueSections.CUCINA, 9)
+                .withMinGrade(CritiqueSections.CONTO, 5));
+        queries.add(new CritiqueQuery().withMinMean(6));
+        queries.add(new CritiqueQuery().ofRestaurant("1").withMinMean(5).withMinGrade(CritiqueSections.MENU, 3));
+        queries.add(new CritiqueQuery().ofRestaurant("unknown"));
+        queries.add(new CritiqueQuery().byCritic("unknown"));
+        queries.add(new CritiqueQuery().byCritic("critic4").withMinGrade(CritiqueSections.LOCATION, 6));
+        queries.add(new CritiqueQuery().ofRestaurant("7").byCritic("critic0").withMinMean(4));
+        return queries;
+    }
+
+    @Test
+    public void queriesMatchAScanOfTheCritiques() {
+        List<Critique> critiques = randomCritiques(500);
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex();
+        for (Critique c : critiques)
+            index.add(c);
+        for (CritiqueQuery query : queries())
+            assertEquals(scan(critiques, query), index.query(query));
+    }
+
+    @Test
+    public void queriesResolveTheIdsGiven() {
+        List<Critique> critiques = randomCritiques(500);
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex(id -> critiques.get(id / 10));
+        for (int i = 0; i < critiques.size(); i++)
+            index.add(i * 10, critiques.get(i));
+        for (CritiqueQuery query : queries())
+            assertEquals(scan(critiques, query), index.query(query));
+    }
+
+    @Test
+    public void resultsAreInTheOrderOfTheIds() {
+        List<Critique> critiques = randomCritiques(300);
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex(id -> critiques.get(Integer.MAX_VALUE - 1 - id));
+        for (int i = critiques.size() - 1; i >= 0; i--)
+            index.add(Integer.MAX_VALUE - 1 - i, critiques.get(i));
+        for (CritiqueQuery query : queries()) {
+            List<Critique> expected = scan(critiques, query);
+            Collections.reverse(expected);
+            assertEquals(expected, index.query(query));
+        }
+    }
+
+    @Test
+    public void gradesOutOfRange() {
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex();
+        index.add(critique(0, "a", "1", 10, 10, 10, 10, 10));
+        index.add(critique(1, "a", "1", 1, 1, 1, 1, 1));
+        assertEquals(2, index.query(new CritiqueQuery().withMinGrade(CritiqueSections.MENU, 0)).size());
+        assertTrue(index.query(new CritiqueQuery().withMinGrade(CritiqueSections.MENU, 11)).isEmpty());
+        assertEquals(1, index.query(new CritiqueQuery().withMinMean(10)).size());
+    }
+
+    @Test
+    public void fractionalMeanIsBelowTheNextGrade() {
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex();
+        index.add(critique(0, "a", "1", 7, 7, 7, 7, 8));
+        assertEquals(1, index.query(new CritiqueQuery().withMinMean(7)).size());
+        assertTrue(index.query(new CritiqueQuery().withMinMean(8)).isEmpty());
+    }
+
+    @Test
+    public void pagesOfIdsFromTheGreatest() {
+        List<Critique> critiques = randomCritiques(500);
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex(id -> critiques.get(id / 10));
+        for (int i = 0; i < critiques.size(); i++)
+            index.add(i * 10, critiques.get(i));
+        for (CritiqueQuery query : queries()) {
+            List<Critique> expected = scan(critiques, query);
+            Collections.reverse(expected);
+            List<Critique> read = new ArrayList<>();
+            Integer cursor = null;
+            int[] ids;
+            do {
+                ids = index.queryIds(query, cursor, 7);
+                for (int id : ids)
+                    read.add(index.getCritique(id));
+                if (ids.length > 0)
+                    cursor = ids[ids.length - 1];
+            } while (ids.length == 7);
+            assertEquals(expected, read);
+        }
+    }
+
+    @Test
+    public void cursorWhichIsNotAnId() {
+        CritiqueBitmapIndex index = new CritiqueBitmapIndex(id -> null);
+        for (int i = 0; i < 5; i++)
+            index.add(i * 10, critique(i, "a", "1", 5, 5, 5, 5, 5));
+        assertArrayEquals(new int[]{20, 10}, index.queryIds(new CritiqueQuery(), 25, 2));
+        assertArrayEquals(new int[]{0}, index.queryIds(new CritiqueQuery(), 10, 2));
+        assertArrayEquals(new int[0], index.queryIds(new CritiqueQuery(), 0, 2));
+        assertArrayEquals(new int[]{40}, index.queryIds(new CritiqueQuery(), 1000, 1));
+    }
+}
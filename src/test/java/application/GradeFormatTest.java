@@ -0,0 +1,50 @@
+package application;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tester of GradeFormat class.
+ */
+public class GradeFormatTest {
+
+    @Test
+    public void halfCasesAreRoundedUp() {
+        assertEquals("1.01", GradeFormat.format(1.005));
+        assertEquals("2.68", GradeFormat.format(2.675));
+        assertEquals("7.50", GradeFormat.format(7.5));
+        assertEquals("10.00", GradeFormat.format(9.999));
+        assertEquals("6.3", GradeFormat.format(6.25, 1));
+    }
+
+    @Test
+    public void sameAsStringFormat() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            double grade = i < 1000 ? i / 1000.0 + 5 : random.nextDouble() * 10;
+            assertEquals(String.format(Locale.ROOT, "%.2f", grade), GradeFormat.format(grade));
+            assertEquals(String.format(Locale.ROOT, "%.1f", grade), GradeFormat.format(grade, 1));
+        }
+    }
+
+    @Test
+    public void tabulatedGrades() {
+        for (int i = 0; i <= RestaurantOverview.MAXVOTO * 100; i++) {
+            double grade = i / 100.0;
+            assertEquals(String.format(Locale.ROOT, "%.2f", grade), GradeFormat.format(grade));
+            assertSame(GradeFormat.format(grade), GradeFormat.format(grade));
+        }
+        assertEquals("10.01", GradeFormat.format(10.01));
+        assertEquals("6.67", GradeFormat.format(20 / 3.0));
+    }
+
+    @Test
+    public void notANumber() {
+        assertEquals("NaN", GradeFormat.format(Double.NaN));
+    }
+}
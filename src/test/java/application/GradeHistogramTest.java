@@ -0,0 +1,59 @@
+package application;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tester of GradeHistogram class.
+ */
+public class GradeHistogramTest {
+
+    private GradeHistogram createHistogram() {
+        GradeHistogram h = new GradeHistogram();
+        for (double grade : new double[]{1, 3.5, 3.9, 4, 7, 7.2, 10})
+            h.add(grade);
+        return h;
+    }
+
+    @Test
+    public void gradesAreCountedByIntegerPart() {
+        GradeHistogram h = createHistogram();
+        assertArrayEquals(new int[]{1, 0, 2, 1, 0, 0, 2, 0, 0, 1}, h.getCounts());
+        assertEquals(2, h.count(3));
+        assertEquals(0, h.count(11));
+        assertEquals(7, h.getTotal());
+    }
+
+    @Test
+    public void countAtLeast() {
+        GradeHistogram h = createHistogram();
+        assertEquals(7, h.countAtLeast(0));
+        assertEquals(7, h.countAtLeast(1));
+        assertEquals(6, h.countAtLeast(2));
+        assertEquals(4, h.countAtLeast(4));
+        assertEquals(3, h.countAtLeast(5));
+        assertEquals(1, h.countAtLeast(10));
+        assertEquals(0, h.countAtLeast(11));
+    }
+
+    @Test
+    public void median() {
+        assertEquals(0, new GradeHistogram().getMedian());
+        assertEquals(4, createHistogram().getMedian());
+        GradeHistogram h = new GradeHistogram();
+        h.add(2);
+        h.add(9);
+        assertEquals(2, h.getMedian());
+    }
+
+    @Test
+    public void gradesOutOfRangeGoInTheLastBuckets() {
+        GradeHistogram h = new GradeHistogram();
+        h.add(0);
+        h.add(12);
+        assertEquals(1, h.count(1));
+        assertEquals(1, h.count(10));
+    }
+}
@@ -0,0 +1,47 @@
+package application;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tester of QuantileSketch class.
+ */
+public class QuantileSketchTest {
+
+    @Test
+    public void emptySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.getMedian(), 0);
+        assertEquals(0, sketch.getCount());
+    }
+
+    @Test
+    public void quantilesAreWithinTheResolution() {
+        Random random = new Random(3);
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = new double[10001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + random.nextDouble() * 9;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            double exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertEquals(exact, sketch.quantile(q), QuantileSketch.RESOLUTION);
+        }
+        assertEquals(values.length, sketch.getCount());
+    }
+
+    @Test
+    public void valuesOutOfRangeAreClamped() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(-5);
+        sketch.add(50);
+        assertEquals(RestaurantOverview.MINVOTO, sketch.quantile(0.5), 1e-9);
+        assertEquals(RestaurantOverview.MAXVOTO, sketch.quantile(1), 1e-9);
+    }
+}
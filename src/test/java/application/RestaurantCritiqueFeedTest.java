@@ -0,0 +1,107 @@
+package application;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of RestaurantCritiqueFeed class.
+ */
+public class RestaurantCritiqueFeedTest {
+
+    private static Critique critique(int code, double grade, double cucina) {
+        Critique c = new Critique("critic", "1", code);
+        c.writeVotes(new double[]{grade, grade, grade, grade});
+        HashMap<MenuEntry, Double> dishes = new HashMap<>();
+        dishes.put(new MenuEntry("", 0., "", "1", "PRIMO"), cucina);
+        c.voteDishes(dishes);
+        c.setComment("critica " + code);
+        return c;
+    }
+
+    /**
+     * Reads all the pages of the feed in an order
+     * @return the last line (the comment, so the code) of each critique read, page by page
+     */
+    private static List<List<String>> pages(RestaurantCritiqueFeed feed, CritiqueOrder order, int size) {
+        List<List<String>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CritiquePage page = feed.page(order, cursor, size);
+            List<String> comments = new ArrayList<>();
+            for (CritiqueView view : page.getCritiques())
+                comments.add(view.getLines().get(view.getLines().size() - 1));
+            pages.add(comments);
+            assertEquals(page.getNextCursor() != null, page.hasNext());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private static List<String> comments(int... codes) {
+        List<String> comments = new ArrayList<>();
+        for (int code : codes)
+            comments.add("critica " + code);
+        return comments;
+    }
+
+    @Test
+    public void recentTest() {
+        RestaurantCritiqueFeed feed = new RestaurantCritiqueFeed();
+        for (int code = 0; code < 7; code++)
+            feed.add(critique(code, 5, 5));
+        List<List<String>> pages = pages(feed, CritiqueOrder.RECENT, 3);
+        assertEquals(3, pages.size());
+        assertEquals(comments(6, 5, 4), pages.get(0));
+        assertEquals(comments(3, 2, 1), pages.get(1));
+        assertEquals(comments(0), pages.get(2));
+    }
+
+    @Test
+    public void lastPageIsFullTest() {
+        RestaurantCritiqueFeed feed = new RestaurantCritiqueFeed();
+        for (int code = 0; code < 6; code++)
+            feed.add(critique(code, 5, 5));
+        List<List<String>> pages = pages(feed, CritiqueOrder.RECENT, 3);
+        assertEquals(2, pages.size());
+        assertEquals(comments(2, 1, 0), pages.get(1));
+        assertNull(feed.page(CritiqueOrder.MEAN, null, 6).getNextCursor());
+    }
+
+    @Test
+    public void gradeOrderTest() {
+        RestaurantCritiqueFeed feed = new RestaurantCritiqueFeed();
+        feed.add(critique(0, 3, 9));
+        feed.add(critique(1, 8, 2));
+        feed.add(critique(2, 3, 4));
+        feed.add(critique(3, 6, 6));
+        feed.add(critique(4, 8, 7));
+        List<List<String>> menu = pages(feed, CritiqueOrder.MENU, 2);
+        assertEquals(comments(4, 1), menu.get(0));
+        assertEquals(comments(3, 2), menu.get(1));
+        assertEquals(comments(0), menu.get(2));
+        List<List<String>> cucina = pages(feed, CritiqueOrder.CUCINA, 4);
+        assertEquals(comments(0, 4, 3, 2), cucina.get(0));
+        assertEquals(comments(1), cucina.get(1));
+    }
+
+    @Test
+    public void unknownCursorTest() {
+        RestaurantCritiqueFeed feed = new RestaurantCritiqueFeed();
+        for (int code = 0; code < 4; code++)
+            feed.add(critique(code, code + 1, 5));
+        CritiquePage fromRecent = feed.page(CritiqueOrder.RECENT, "10", 2);
+        assertEquals(2, fromRecent.getCritiques().size());
+        assertTrue(fromRecent.hasNext());
+        CritiquePage fromMean = feed.page(CritiqueOrder.MEAN, "10", 10);
+        assertEquals(4, fromMean.getCritiques().size());
+        assertFalse(fromMean.hasNext());
+    }
+}
@@ -0,0 +1,88 @@
+package application;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tester of RestaurantIndex class.
+ */
+public class RestaurantIndexTest {
+
+    private RestaurantIndex createIndex() {
+        RestaurantIndex index = new RestaurantIndex();
+        index.add("1", "Trattoria da Mario", "Via Giuseppe Garibaldi 10");
+        index.add("2", "Pizzeria Bella Napoli", "Corso Vittorio Emanuele 101");
+        index.add("3", "Caff\u00e8 Centrale", "Piazza Duomo 1");
+        return index;
+    }
+
+    @Test
+    public void sameRestaurantIgnoringCaseAccentsAndSpaces() {
+        RestaurantIndex index = createIndex();
+        assertEquals("1", index.findSame("trattoria  DA mario", "via giuseppe garibaldi, 10"));
+        assertEquals("3", index.findSame("Caffe centrale", "Piazza Duomo 1"));
+    }
+
+    @Test
+    public void anotherBranchIsOnlySimilar() {
+        RestaurantIndex index = createIndex();
+        assertNull(index.findSame("Trattoria da Mario", "Via Giuseppe Garibaldi 12"));
+        assertEquals("1", index.findSimilar("Trattoria da Mario", "Via Giuseppe Garibaldi 12"));
+        assertNull(index.findSame("Pizzeria Bella Napoli", "Corso Vittorio Emanuele 109"));
+        assertEquals("2", index.findSimilar("Pizzeria Bella Napoli", "Corso Vittorio Emanuele 109"));
+    }
+
+    @Test
+    public void typoIsSimilar() {
+        assertEquals("2", createIndex().findSimilar("Pizeria Bella Napoli", "Corso Vittorio Emanuele 101"));
+    }
+
+    @Test
+    public void differentRestaurantIsNeitherSameNorSimilar() {
+        RestaurantIndex index = createIndex();
+        assertNull(index.findSame("Osteria del Ponte", "Via Roma 3"));
+        assertNull(index.findSimilar("Osteria del Ponte", "Via Roma 3"));
+        assertNull(index.findSimilar("Trattoria da Luigi", "Via Roma 3"));
+    }
+
+    @Test
+    public void mostSimilarRestaurantIsFound() {
+        RestaurantIndex index = createIndex();
+        index.add("4", "Trattoria da Mario", "Via Giuseppe Garibaldi 110");
+        assertEquals("1", index.findSimilar("Trattoria da Mario", "Via Giuseppe Garibaldi 10"));
+    }
+
+    @Test
+    public void nonLatinNamesAreKept() {
+        RestaurantIndex index = createIndex();
+        String shanghai = "\u4e0a\u6d77\u996d\u5e97";
+        String nanjingRoad = "\u5357\u4eac\u8def 8";
+        String moscow = "\u0420\u0435\u0441\u0442\u043e\u0440\u0430\u043d \u041c\u043e\u0441\u043a\u0432\u0430";
+        String tverskaya = "\u0423\u043b\u0438\u0446\u0430 \u0422\u0432\u0435\u0440\u0441\u043a\u0430\u044f 8";
+        index.add("5", shanghai, nanjingRoad);
+        index.add("6", moscow, tverskaya);
+        assertEquals("5", index.findSame(shanghai, "\u5357\u4eac\u8def, 8"));
+        assertNull(index.findSame("\u5317\u4eac\u996d\u5e97", nanjingRoad));
+        assertEquals("6", index.findSame(moscow.toUpperCase(), tverskaya));
+        assertEquals("\u0440\u0435\u0441\u0442\u043e\u0440\u0430\u043d",
+                RestaurantIndex.normalize("\u0420\u0415\u0421\u0422\u041e\u0420\u0410\u041d!"));
+    }
+
+    @Test
+    public void emptyKeyIsNeverTheSame() {
+        RestaurantIndex index = createIndex();
+        index.add("7", "!!!", "---");
+        assertNull(index.findSame("???", ""));
+        assertNull(index.findSame(null, null));
+        assertNull(index.findSimilar("...", null));
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals("l osteria di gigi", RestaurantIndex.normalize("  L'Osteria   di GIGI! "));
+        assertEquals("perche", RestaurantIndex.normalize("Perch\u00e9"));
+        assertEquals("", RestaurantIndex.normalize(null));
+    }
+}
@@ -0,0 +1,40 @@
+package application;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tester of RestaurantStatistics class.
+ */
+public class RestaurantStatisticsTest {
+
+    private static Critique critique(double grade, double... dishGrades) {
+        Critique c = new Critique("critic", "1", 0);
+        c.writeVotes(new double[]{grade, grade, grade, grade});
+        HashMap<MenuEntry, Double> dishes = new HashMap<>();
+        for (int i = 0; i < dishGrades.length; i++)
+            dishes.put(new MenuEntry("dish" + i, 0., "", "1", "PRIMO"), dishGrades[i]);
+        c.voteDishes(dishes);
+        return c;
+    }
+
+    @Test
+    public void distributionsAndMedians() {
+        RestaurantStatistics rs = new RestaurantStatistics();
+        rs.add(critique(4, 6.2, 7.2));
+        rs.add(critique(8, 7.3));
+        rs.add(critique(9, 8.0));
+        assertEquals(2, rs.countAtLeast(CritiqueSections.MENU, 5));
+        Map<String, int[]> distributions = rs.getDistributions();
+        assertArrayEquals(new int[]{0, 0, 0, 1, 0, 0, 0, 1, 1, 0}, distributions.get("MENU"));
+        Map<String, String> medians = rs.getMedians();
+        assertEquals("8", medians.get("SERVIZIO"));
+        assertEquals("7.2", medians.get("PIATTI"));
+        assertEquals(4, rs.getDishGrades().getCount());
+    }
+}
@@ -0,0 +1,138 @@
+package net.request_handler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Requests and responses of the servlet API for the tests of the handlers, without a server
+ */
+class FakeHttp {
+
+    private FakeHttp() {
+    }
+
+    /**
+     * @param method the method of the request
+     * @param headers the headers of the request
+     * @param parameters the parameters of the request
+     * @return the request
+     */
+    static HttpServletRequest request(String method, Map<String, String> headers, Map<String, String> parameters) {
+        return (HttpServletRequest) Proxy.newProxyInstance(FakeHttp.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getHeader":
+                            return headers.get(args[0]);
+                        case "getParameter":
+                            return parameters.get(args[0]);
+                        case "toString":
+                            return method + " " + parameters;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+
+    /**
+     * A response which keeps its status, its headers and its body
+     */
+    static class Response {
+        private final Map<String, String> headers = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private int status = HttpServletResponse.SC_OK;
+        private long length = -1;
+        private final HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+                FakeHttp.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "setHeader":
+                        case "addHeader":
+                            headers.put((String) args[0], (String) args[1]);
+                            return null;
+                        case "getHeader":
+                            return headers.get(args[0]);
+                        case "setStatus":
+                            status = (Integer) args[0];
+                            return null;
+                        case "sendError":
+                            status = (Integer) args[0];
+                            return null;
+                        case "getStatus":
+                            return status;
+                        case "setContentLengthLong":
+                            length = (Long) args[0];
+                            return null;
+                        case "setContentLength":
+                            length = (Integer) args[0];
+                            return null;
+                        case "setContentType":
+                        case "setCharacterEncoding":
+                            return null;
+                        case "getCharacterEncoding":
+                            return "UTF-8";
+                        case "isCommitted":
+                            return false;
+                        case "getOutputStream":
+                            return stream();
+                        case "getWriter":
+                            return new PrintWriter(new OutputStreamWriter(stream(), StandardCharsets.UTF_8), true);
+                        case "toString":
+                            return "Response " + status;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+
+        private ServletOutputStream stream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+
+        HttpServletResponse get() {
+            return response;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        byte[] getBody() {
+            return body.toByteArray();
+        }
+
+        String getText() {
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
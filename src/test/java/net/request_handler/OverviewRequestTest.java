@@ -0,0 +1,88 @@
+package net.request_handler;
+
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tester of the pages sent by OverviewRequest from the RestaurantPageCache.
+ */
+public class OverviewRequestTest {
+
+    private static final String USER_FIELD = "<input type=\"hidden\" name=\"username\" value=\"";
+
+    private static RestaurantPageCache.Page page(String key, long version) {
+        return RestaurantPageCache.getInstance().put(key, version,
+                ("<form>" + RestaurantPageCache.USER_MARKER + "</form>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FakeHttp.Response send(String method, String ifNoneMatch, RestaurantPageCache.Page page,
+                                          String username) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        if (ifNoneMatch != null)
+            headers.put("If-None-Match", ifNoneMatch);
+        FakeHttp.Response resp = new FakeHttp.Response();
+        OverviewRequest.sendPage(FakeHttp.request(method, headers, Collections.emptyMap()), resp.get(), page,
+                username);
+        return resp;
+    }
+
+    @Test
+    public void getTest() throws IOException {
+        RestaurantPageCache.Page page = page("getTest", 1);
+        FakeHttp.Response resp = send("GET", null, page, "mario");
+        assertEquals(HttpServletResponse.SC_OK, resp.getStatus());
+        assertEquals(page.getEtag(false), resp.getHeader("ETag"));
+        assertEquals("no-cache", resp.getHeader("Cache-Control"));
+        assertEquals("<form>" + USER_FIELD + "mario\"></form>", resp.getText());
+        assertEquals(resp.getBody().length, resp.getLength());
+    }
+
+    @Test
+    public void notModifiedTest() throws IOException {
+        RestaurantPageCache.Page page = page("notModifiedTest", 1);
+        FakeHttp.Response resp = send("GET", page.getEtag(false), page, "mario");
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, resp.getStatus());
+        assertEquals(page.getEtag(false), resp.getHeader("ETag"));
+        assertEquals(0, resp.getBody().length);
+    }
+
+    @Test
+    public void changedPageTest() throws IOException {
+        String etag = page("changedPageTest", 1).getEtag(false);
+        RestaurantPageCache.Page page = page("changedPageTest", 2);
+        FakeHttp.Response resp = send("GET", etag, page, "luigi");
+        assertEquals(HttpServletResponse.SC_OK, resp.getStatus());
+        assertEquals(page.getEtag(false), resp.getHeader("ETag"));
+        assertEquals("<form>" + USER_FIELD + "luigi\"></form>", resp.getText());
+    }
+
+    @Test
+    public void compressedTest() throws IOException {
+        RestaurantPageCache.Page page = page("compressedTest", 1);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("If-None-Match", page.getEtag(false));
+        FakeHttp.Response resp = new FakeHttp.Response();
+        OverviewRequest.sendPage(FakeHttp.request("GET", headers, Collections.emptyMap()),
+                new GzipResponse(resp.get()), page, "mario");
+        assertEquals(HttpServletResponse.SC_OK, resp.getStatus());
+        assertEquals(page.getEtag(true), resp.getHeader("ETag"));
+    }
+
+    @Test
+    public void postTest() throws IOException {
+        RestaurantPageCache.Page page = page("postTest", 1);
+        FakeHttp.Response resp = send("POST", page.getEtag(false), page, "<b>");
+        assertEquals(HttpServletResponse.SC_OK, resp.getStatus());
+        assertNull(resp.getHeader("ETag"));
+        assertEquals("<form>" + USER_FIELD + "&lt;b&gt;\"></form>", resp.getText());
+    }
+}
@@ -0,0 +1,96 @@
+package net.request_handler;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of RestaurantPageCache class.
+ */
+public class RestaurantPageCacheTest {
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String[] parts(RestaurantPageCache.Page page) {
+        String[] parts = new String[page.getParts().length];
+        for (int i = 0; i < parts.length; i++)
+            parts[i] = new String(page.getParts()[i], StandardCharsets.UTF_8);
+        return parts;
+    }
+
+    @Test
+    public void keyTest() {
+        assertEquals("12|RECENT|", RestaurantPageCache.key("12", "RECENT", null));
+        assertEquals(RestaurantPageCache.key("12", "RECENT", null), RestaurantPageCache.key("12", "RECENT", ""));
+        assertEquals("12|MEAN|40", RestaurantPageCache.key("12", "MEAN", "40"));
+        assertNotEquals(RestaurantPageCache.key("12", "MEAN", "40"), RestaurantPageCache.key("12", "MEAN", "4"));
+        assertNotEquals(RestaurantPageCache.key("12", "MEAN", null), RestaurantPageCache.key("1", "MEAN", null));
+    }
+
+    @Test
+    public void splitTest() {
+        String m = RestaurantPageCache.USER_MARKER;
+        assertEquals(1, RestaurantPageCache.split(utf8("<p>nessun utente</p>")).length);
+        byte[][] parts = RestaurantPageCache.split(utf8(m + "<p>Caff\u00e8</p>" + m + m + "<b>fine</b>" + m));
+        assertEquals(5, parts.length);
+        assertArrayEquals(new byte[0], parts[0]);
+        assertArrayEquals(utf8("<p>Caff\u00e8</p>"), parts[1]);
+        assertArrayEquals(new byte[0], parts[2]);
+        assertArrayEquals(utf8("<b>fine</b>"), parts[3]);
+        assertArrayEquals(new byte[0], parts[4]);
+        assertEquals(1, RestaurantPageCache.split(utf8("<!--username")).length);
+        assertEquals(1, RestaurantPageCache.split(new byte[0]).length);
+    }
+
+    @Test
+    public void versionTest() {
+        RestaurantPageCache cache = RestaurantPageCache.getInstance();
+        String key = RestaurantPageCache.key("versionTest", "RECENT", null);
+        assertNull(cache.get(key, 0));
+        RestaurantPageCache.Page first = cache.put(key, 1, utf8("a" + RestaurantPageCache.USER_MARKER + "b"));
+        assertArrayEquals(new String[]{"a", "b"}, parts(first));
+        assertSame(first, cache.get(key, 1));
+        assertNull(cache.get(key, 2));
+
+        RestaurantPageCache.Page second = cache.put(key, 2, utf8("c"));
+        assertSame(second, cache.get(key, 2));
+        assertNull(cache.get(key, 1));
+    }
+
+    @Test
+    public void etagTest() {
+        RestaurantPageCache cache = RestaurantPageCache.getInstance();
+        RestaurantPageCache.Page page = cache.put("etagTest|1", 1, utf8("pagina"));
+        String etag = page.getEtag(false);
+        assertTrue(etag.startsWith("\"1-") && etag.endsWith("\""));
+        assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", page.getEtag(true));
+        assertEquals(etag, cache.put("etagTest|2", 1, utf8("pagina")).getEtag(false));
+        assertNotEquals(etag, cache.put("etagTest|3", 2, utf8("pagina")).getEtag(false));
+        assertNotEquals(etag, cache.put("etagTest|4", 1, utf8("pagina!")).getEtag(false));
+    }
+
+    @Test
+    public void matchesTest() {
+        RestaurantPageCache.Page page = RestaurantPageCache.getInstance().put("matchesTest", 3, utf8("pagina"));
+        String plain = page.getEtag(false);
+        String gzip = page.getEtag(true);
+        assertFalse(page.matches(null, false));
+        assertTrue(page.matches(plain, false));
+        assertFalse(page.matches(plain, true));
+        assertTrue(page.matches(gzip, true));
+        assertTrue(page.matches("W/" + plain, false));
+        assertTrue(page.matches("\"altro\", " + plain, false));
+        assertTrue(page.matches("*", true));
+        assertFalse(page.matches("\"altro\"", false));
+    }
+}
@@ -0,0 +1,74 @@
+package net.request_handler;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rythmengine.Rythm;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of the parameters checked by RestaurantViewRequest before it reads the critiques.
+ */
+public class RestaurantViewRequestTest {
+
+    @BeforeClass
+    public static void initTemplates() {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put("home.template", "templates");
+        Rythm.init(conf);
+    }
+
+    private static FakeHttp.Response send(String method, String... parameters) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        params.put("restaurant", "1");
+        params.put("username", "mario");
+        for (int i = 0; i < parameters.length; i += 2)
+            params.put(parameters[i], parameters[i + 1]);
+        FakeHttp.Response resp = new FakeHttp.Response();
+        if (method.equals("GET"))
+            RestaurantViewRequest.getInstance().doGet(FakeHttp.request(method, Collections.emptyMap(), params),
+                    resp.get());
+        else
+            RestaurantViewRequest.getInstance().doPost(FakeHttp.request(method, Collections.emptyMap(), params),
+                    resp.get());
+        return resp;
+    }
+
+    private static void assertBadRequest(FakeHttp.Response resp) {
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, resp.getStatus());
+        assertTrue(resp.getText().contains("Parametri della ricerca non validi"));
+    }
+
+    @Test
+    public void filterTest() throws IOException {
+        assertBadRequest(send("POST", "action", "filter", "section", "mean", "grade", "sette"));
+        assertBadRequest(send("POST", "action", "filter", "section", "mean", "grade", "11"));
+        assertBadRequest(send("POST", "action", "filter", "section", "mean", "grade", "0"));
+        assertBadRequest(send("POST", "action", "filter", "section", "mean"));
+        assertBadRequest(send("POST", "action", "filter", "section", "DOLCE", "grade", "5"));
+        assertBadRequest(send("POST", "action", "filter", "grade", "5"));
+        assertBadRequest(send("GET", "action", "filter", "section", "CUCINA", "grade", "5", "cursor", "x"));
+    }
+
+    @Test
+    public void queryTest() throws IOException {
+        assertBadRequest(send("POST", "action", "query", "grade_mean", "x"));
+        assertBadRequest(send("POST", "action", "query", "grade_CUCINA", "5.5"));
+        assertBadRequest(send("POST", "action", "query", "grade_SERVIZIO", "-1", "critic", "luigi"));
+        assertBadRequest(send("GET", "action", "query", "grade_CONTO", "3", "cursor", "1e3"));
+    }
+
+    @Test
+    public void pageTest() throws IOException {
+        assertBadRequest(send("GET", "order", "PEGGIORI"));
+        assertBadRequest(send("GET", "order", "MEAN", "cursor", "ultima"));
+        assertBadRequest(send("POST", "action", "page", "cursor", "12a"));
+    }
+}
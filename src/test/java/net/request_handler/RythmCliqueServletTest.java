@@ -0,0 +1,187 @@
+package net.request_handler;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of the asynchronous mode of RythmCliqueServlet: the requests run by the executor, the ones
+ * rejected when the queue is full and the ones which expire.
+ */
+public class RythmCliqueServletTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RythmCliqueServlet servlet;
+    private Server server;
+    private int port;
+
+    /**
+     * A handler which answers with the name of its thread, after the given number of milliseconds
+     */
+    private static final RequestStrategy SLOW = new RequestStrategy() {
+        @Override
+        public void doGet(HttpServletResponse resp) {
+        }
+
+        @Override
+        public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            try {
+                Thread.sleep(Long.parseLong(req.getParameter("ms")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resp.getWriter().print(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            doGet(req, resp);
+        }
+    };
+
+    /**
+     * A handler which keeps its thread until the test releases it
+     */
+    private final RequestStrategy blocking = new RequestStrategy() {
+        @Override
+        public void doGet(HttpServletResponse resp) throws IOException {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resp.getWriter().print("sbloccato");
+        }
+
+        @Override
+        public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            doGet(resp);
+        }
+    };
+
+    private void start(int threads, int queue, long timeout) throws Exception {
+        System.setProperty(RythmCliqueServlet.ASYNC_PROPERTY, "true");
+        System.setProperty(RythmCliqueServlet.ASYNC_THREADS_PROPERTY, String.valueOf(threads));
+        System.setProperty(RythmCliqueServlet.ASYNC_QUEUE_PROPERTY, String.valueOf(queue));
+        System.setProperty(RythmCliqueServlet.ASYNC_TIMEOUT_PROPERTY, String.valueOf(timeout));
+        Map<String, RequestStrategy> routes = new HashMap<>();
+        routes.put("/slow", SLOW);
+        routes.put("/blocking", blocking);
+        servlet = new RythmCliqueServlet(routes);
+
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler();
+        ServletHolder holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/*");
+        server.setHandler(context);
+        server.start();
+        port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        if (server != null)
+            server.stop();
+        System.clearProperty(RythmCliqueServlet.ASYNC_PROPERTY);
+        System.clearProperty(RythmCliqueServlet.ASYNC_THREADS_PROPERTY);
+        System.clearProperty(RythmCliqueServlet.ASYNC_QUEUE_PROPERTY);
+        System.clearProperty(RythmCliqueServlet.ASYNC_TIMEOUT_PROPERTY);
+    }
+
+    /**
+     * @return the status and the body of the answer, separated by a space
+     */
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (in != null) {
+            byte[] buffer = new byte[1024];
+            for (int n; (n = in.read(buffer)) != -1; )
+                body.write(buffer, 0, n);
+            in.close();
+        }
+        return status + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private CompletableFuture<String> getLater(String path) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return get(path);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+        start(2, 4, 5000);
+        for (int i = 0; i < 20; i++)
+            assertTrue(get("/slow?ms=0").startsWith("200 clique-request-"));
+        assertEquals(0, servlet.getPendingTimeouts());
+        assertTrue(get("/missing").startsWith("404 "));
+    }
+
+    @Test
+    public void rejectedTest() throws Exception {
+        start(1, 1, 5000);
+        CompletableFuture<String> running = getLater("/blocking");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = getLater("/slow?ms=0");
+        Thread.sleep(200);
+        assertTrue(get("/slow?ms=0").startsWith("503 "));
+
+        release.countDown();
+        assertEquals("200 sbloccato", running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS).startsWith("200 clique-request-"));
+    }
+
+    @Test
+    public void queuedTimeoutTest() throws Exception {
+        start(1, 4, 200);
+        CompletableFuture<String> running = getLater("/blocking");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        long begin = System.nanoTime();
+        assertTrue(get("/slow?ms=0").startsWith("503 "));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 5000);
+        assertFalse(running.isDone());
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void runningTimeoutTest() throws Exception {
+        start(1, 4, 200);
+        String answer = get("/slow?ms=600");
+        assertTrue(answer.startsWith("503 "));
+        assertFalse(answer.contains("clique-request-"));
+        assertTrue(get("/slow?ms=0").startsWith("200 clique-request-"));
+    }
+}
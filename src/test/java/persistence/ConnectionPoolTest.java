@@ -0,0 +1,118 @@
+package persistence;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tester of ConnectionPool class, with the connections of a FakeDatabase.
+ */
+public class ConnectionPoolTest {
+
+    private FakeDatabase db;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        db = new FakeDatabase();
+        pool = new ConnectionPool(db, 2, 50);
+    }
+
+    @Test
+    public void reuseTest() throws SQLException {
+        PooledConnection first = pool.borrow();
+        assertEquals(1, pool.getActiveConnections());
+        pool.release(first);
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+
+        assertSame(first, pool.borrow());
+        PooledConnection second = pool.borrow();
+        assertEquals(2, db.getOpenedCount());
+        assertEquals(2, pool.getCreatedConnections());
+        assertEquals(3, pool.getBorrowCount());
+        pool.release(second);
+        pool.release(first);
+        assertEquals(2, pool.getIdleConnections());
+        assertSame(first, pool.borrow());
+    }
+
+    @Test
+    public void timeoutTest() throws SQLException {
+        PooledConnection first = pool.borrow();
+        PooledConnection second = pool.borrow();
+        try {
+            pool.borrow();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertEquals(1, pool.getWaitCount());
+            assertEquals(1, pool.getTimeoutCount());
+        }
+        assertEquals(2, pool.getActiveConnections());
+        pool.release(first);
+        assertSame(first, pool.borrow());
+        pool.release(first);
+        pool.release(second);
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    public void droppedTest() throws SQLException {
+        PooledConnection first = pool.borrow();
+        db.dropConnections();
+        pool.release(first);
+        assertEquals(0, pool.getIdleConnections());
+        assertEquals(1, pool.getDiscardedConnections());
+
+        PooledConnection second = pool.borrow();
+        assertFalse(second == first);
+        assertEquals(2, db.getOpenedCount());
+        pool.release(second);
+    }
+
+    @Test
+    public void rollbackTest() throws SQLException {
+        PooledConnection conn = pool.borrow();
+        conn.beginTransaction();
+        assertTrue(conn.inTransaction());
+        pool.release(conn);
+        assertFalse(conn.inTransaction());
+        assertSame(conn, pool.borrow());
+    }
+
+    @Test
+    public void shutdownTest() throws SQLException {
+        PooledConnection idle = pool.borrow();
+        PooledConnection lent = pool.borrow();
+        pool.release(idle);
+        pool.shutdown();
+        assertEquals(1, db.getClosedCount());
+        assertEquals(0, pool.getIdleConnections());
+
+        pool.release(lent);
+        assertEquals(2, db.getClosedCount());
+        assertEquals(0, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+        try {
+            pool.borrow();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertEquals(0, pool.getTimeoutCount());
+        }
+    }
+
+    @Test
+    public void toStringTest() throws SQLException {
+        pool.borrow();
+        assertEquals("ConnectionPool[active=1, idle=0, created=1, discarded=0, borrowed=1, waited=0, timedOut=0]",
+                pool.toString());
+    }
+}
@@ -0,0 +1,209 @@
+package persistence;
+
+import application.Critique;
+import application.CritiqueOrder;
+import application.CritiquePage;
+import application.CritiqueSections;
+import application.CritiqueView;
+import application.MenuEntry;
+import application.RestaurantCritiqueFeed;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tester of CritiqueColumnStore class.
+ */
+public class CritiqueColumnStoreTest {
+
+    private static Critique critique(int code, String critic, String restaurant, double[] grades,
+                                     String comment, double... dishGrades) {
+        Critique c = new Critique(critic, restaurant, code);
+        c.writeVotes(grades);
+        HashMap<MenuEntry, Double> dishes = new HashMap<>();
+        for (int i = 0; i < dishGrades.length; i++)
+            dishes.put(new MenuEntry("piatto " + i, 10.5 + i, restaurant + "-" + i, restaurant,
+                    i % 2 == 0 ? "PRIMO" : "DOLCE"), dishGrades[i]);
+        c.voteDishes(dishes);
+        if (comment != null)
+            c.setComment(comment);
+        return c;
+    }
+
+    private static List<Critique> randomCritiques(int n) {
+        Random random = new Random(7);
+        List<Critique> critiques = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double[] grades = new double[4];
+            for (int j = 0; j < grades.length; j++)
+                grades[j] = 1 + random.nextInt(10);
+            critiques.add(critique(i, "critic" + random.nextInt(4), "" + random.nextInt(3), grades,
+                    random.nextBoolean() ? null : "commento " + i, 1 + random.nextInt(10), 1 + random.nextInt(10)));
+        }
+        return critiques;
+    }
+
+    private static Map<String, Double> dishGrades(Critique c) {
+        Map<String, Double> grades = new HashMap<>();
+        for (Map.Entry<MenuEntry, Double> dish : c.getDishes().entrySet())
+            grades.put(dish.getKey().getCod() + "/" + dish.getKey().getDish() + "/" + dish.getKey().getPrice()
+                    + "/" + dish.getKey().getType(), dish.getValue());
+        return grades;
+    }
+
+    /**
+     * MenuEntry has no hashCode, so the dishes of a rebuilt critique can be listed in another order
+     */
+    private static List<String> sortedLines(CritiqueView view) {
+        List<String> lines = new ArrayList<>(view.getLines());
+        Collections.sort(lines);
+        return lines;
+    }
+
+    @Test
+    public void roundTripTest() {
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        Critique written = critique(3, "mario", "12", new double[]{7.3, 1 + 1.0 / 3, 9, 5.55},
+                "Ottima cucina, servizio un po' lento. Caff\u00e8 eccellente", 8, 6.5, 1 + 1.0 / 7);
+        store.add(written);
+
+        Critique read = store.getByCode(3);
+        assertEquals(3, read.getCritiqueCode());
+        assertEquals("mario", read.getCritico());
+        assertEquals("12", read.getRestaurantCode());
+        assertEquals(written.getComment(), read.getComment());
+        for (CritiqueSections section : CritiqueSections.values())
+            assertEquals(written.getGrade(section), read.getGrade(section), 0);
+        assertEquals(dishGrades(written), dishGrades(read));
+        assertEquals(sortedLines(written.getView()), sortedLines(store.getView(3)));
+        assertEquals("12", store.getRestaurantOf(3));
+        assertNull(store.getByCode(4));
+        assertNull(store.getView(4));
+        assertNull(store.getRestaurantOf(4));
+    }
+
+    @Test
+    public void noCommentTest() {
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        store.add(critique(0, "mario", "12", new double[]{1, 2, 3, 4}, null, 5));
+        assertNull(store.getByCode(0).getComment());
+        assertEquals(1, store.countCritiquesOfRestaurant("12"));
+        assertEquals(1, store.countCritiquesOfCritic("mario"));
+        assertEquals(0, store.countCritiquesOfRestaurant("13"));
+        assertEquals(0, store.getCodesOfCritic("luigi", null, 10).length);
+    }
+
+    @Test
+    public void restaurantPagesTest() {
+        List<Critique> critiques = randomCritiques(300);
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        Map<String, RestaurantCritiqueFeed> feeds = new HashMap<>();
+        for (Critique c : critiques) {
+            store.add(c);
+            feeds.computeIfAbsent(c.getRestaurantCode(), code -> new RestaurantCritiqueFeed()).add(c);
+        }
+        for (Map.Entry<String, RestaurantCritiqueFeed> feed : feeds.entrySet()) {
+            assertEquals(feed.getValue().getCritiques().size(), store.countCritiquesOfRestaurant(feed.getKey()));
+            for (CritiqueOrder order : CritiqueOrder.values()) {
+                String cursor = null;
+                do {
+                    CritiquePage page = feed.getValue().page(order, cursor, 7);
+                    int[] codes = store.getCodesOfRestaurant(feed.getKey(), order,
+                            cursor == null ? null : Integer.valueOf(cursor), 7);
+                    assertEquals(page.getCritiques().size(), codes.length);
+                    for (int i = 0; i < codes.length; i++)
+                        assertEquals(sortedLines(page.getCritiques().get(i)), sortedLines(store.getView(codes[i])));
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+            }
+        }
+    }
+
+    @Test
+    public void loadTest() {
+        List<Critique> critiques = randomCritiques(500);
+        CritiqueColumnStore added = new CritiqueColumnStore(UnaryOperator.identity());
+        CritiqueColumnStore loaded = new CritiqueColumnStore(UnaryOperator.identity());
+        for (Critique c : critiques) {
+            added.add(c);
+            loaded.load(c);
+        }
+        loaded.finishLoading();
+        loaded.add(critique(500, "critic0", "1", new double[]{6, 6, 6, 6}, null, 6));
+        added.add(critique(500, "critic0", "1", new double[]{6, 6, 6, 6}, null, 6));
+        for (String restaurant : new String[]{"0", "1", "2"}) {
+            for (CritiqueOrder order : CritiqueOrder.values())
+                assertArrayEquals(added.getCodesOfRestaurant(restaurant, order, null, 1000),
+                        loaded.getCodesOfRestaurant(restaurant, order, null, 1000));
+        }
+        for (int critic = 0; critic < 4; critic++)
+            assertArrayEquals(added.getCodesOfCritic("critic" + critic, null, 1000),
+                    loaded.getCodesOfCritic("critic" + critic, null, 1000));
+    }
+
+    @Test
+    public void loadWithoutFinishTest() {
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        for (int code = 0; code < 5; code++)
+            store.load(critique(code, "mario", "1", new double[]{code + 1, 1, 1, 1}, null, 1));
+        assertArrayEquals(new int[]{4, 3, 2, 1, 0}, store.getCodesOfCritic("mario", null, 10));
+        assertArrayEquals(new int[]{4, 3, 2, 1, 0}, store.getCodesOfRestaurant("1", CritiqueOrder.MENU, null, 10));
+    }
+
+    @Test
+    public void criticPagesTest() {
+        List<Critique> critiques = randomCritiques(200);
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        for (Critique c : critiques)
+            store.add(c);
+        for (int critic = 0; critic < 4; critic++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = critiques.size() - 1; i >= 0; i--) {
+                if (critiques.get(i).getCritico().equals("critic" + critic))
+                    expected.add(critiques.get(i).getCritiqueCode());
+            }
+            assertEquals(expected.size(), store.countCritiquesOfCritic("critic" + critic));
+            List<Integer> read = new ArrayList<>();
+            Integer cursor = null;
+            int[] codes;
+            do {
+                codes = store.getCodesOfCritic("critic" + critic, cursor, 9);
+                for (int code : codes)
+                    read.add(code);
+                if (codes.length > 0)
+                    cursor = codes[codes.length - 1];
+            } while (codes.length == 9);
+            assertEquals(expected, read);
+        }
+    }
+
+    @Test
+    public void cursorOfOtherRestaurantTest() {
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        store.add(critique(0, "mario", "1", new double[]{1, 1, 1, 1}, null, 1));
+        store.add(critique(1, "mario", "2", new double[]{9, 9, 9, 9}, null, 9));
+        store.add(critique(2, "mario", "1", new double[]{5, 5, 5, 5}, null, 5));
+        assertArrayEquals(new int[]{2, 0}, store.getCodesOfRestaurant("1", CritiqueOrder.MEAN, 1, 10));
+        assertArrayEquals(new int[]{0}, store.getCodesOfRestaurant("1", CritiqueOrder.RECENT, 1, 10));
+        assertArrayEquals(new int[]{0}, store.getCodesOfRestaurant("1", CritiqueOrder.CUCINA, 2, 10));
+    }
+
+    @Test
+    public void viewIsCachedTest() {
+        CritiqueColumnStore store = new CritiqueColumnStore(UnaryOperator.identity());
+        store.add(critique(0, "mario", "1", new double[]{1, 2, 3, 4}, "buono", 5));
+        CritiqueView view = store.getView(0);
+        assertSame(view, store.getView(0));
+    }
+}
@@ -0,0 +1,216 @@
+package persistence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Connections which answer the queries of the mappers in the tests, without reaching the database.
+ * Each query is answered by the function registered for its sql text, which receives the parameters
+ * of the statement and returns the rows of the result.
+ */
+class FakeDatabase implements ConnectionPool.ConnectionFactory {
+
+    private final Map<String, Function<List<Object>, List<Object[]>>> answers = new ConcurrentHashMap<>();
+    private final List<FakeConnection> connections = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger executed = new AtomicInteger();
+
+    /**
+     * Registers the answer to a query
+     * @param sql the text of the query, as prepared by the mapper
+     * @param rows the rows of the result, given the parameters of the statement
+     */
+    void answer(String sql, Function<List<Object>, List<Object[]>> rows) {
+        answers.put(sql, rows);
+    }
+
+    static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+
+    /**
+     * @return the number of queries run through executeQuery
+     */
+    int getQueryCount() {
+        return queries.get();
+    }
+
+    /**
+     * @return the number of statements run through execute
+     */
+    int getExecuteCount() {
+        return executed.get();
+    }
+
+    int getOpenedCount() {
+        return connections.size();
+    }
+
+    int getClosedCount() {
+        int closed = 0;
+        synchronized (connections) {
+            for (FakeConnection conn : connections)
+                closed += conn.closed ? 1 : 0;
+        }
+        return closed;
+    }
+
+    /**
+     * Closes all the connections opened so far, as the driver does when the link with the database is lost
+     */
+    void dropConnections() {
+        synchronized (connections) {
+            for (FakeConnection conn : connections)
+                conn.closed = true;
+        }
+    }
+
+    @Override
+    public Connection open() {
+        FakeConnection conn = new FakeConnection();
+        connections.add(conn);
+        return proxy(Connection.class, conn::invoke);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return type.getSimpleName() + "@" + System.identityHashCode(proxy);
+                        default:
+                            return handler.invoke(proxy, method, args);
+                    }
+                }));
+    }
+
+    private class FakeConnection {
+        private volatile boolean closed;
+        private boolean autoCommit = true;
+
+        Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (closed)
+                        throw new SQLException("connessione chiusa");
+                    FakeStatement stm = new FakeStatement((String) args[0]);
+                    return proxy(PreparedStatement.class, stm::invoke);
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return !closed;
+                case "close":
+                    closed = true;
+                    return null;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "commit":
+                case "rollback":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    private class FakeStatement {
+        private final String sql;
+        private final List<Object> parameters = new ArrayList<>();
+        private boolean closed;
+
+        FakeStatement(String sql) {
+            this.sql = sql;
+        }
+
+        Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer) {
+                int index = (Integer) args[0];
+                while (parameters.size() < index)
+                    parameters.add(null);
+                parameters.set(index - 1, args[1]);
+                return null;
+            }
+            switch (name) {
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "setFetchSize":
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "close":
+                    closed = true;
+                    return null;
+                case "execute":
+                    executed.incrementAndGet();
+                    return false;
+                case "executeQuery":
+                    Function<List<Object>, List<Object[]>> answer = answers.get(sql);
+                    if (answer == null)
+                        throw new SQLException("query inattesa: " + sql);
+                    queries.incrementAndGet();
+                    FakeResultSet rs = new FakeResultSet(answer.apply(new ArrayList<>(parameters)));
+                    return proxy(ResultSet.class, rs::invoke);
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        }
+    }
+
+    private static class FakeResultSet {
+        private final List<Object[]> rows;
+        private int row = -1;
+
+        FakeResultSet(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "next":
+                    row++;
+                    return row < rows.size();
+                case "isBeforeFirst":
+                    return row == -1 && !rows.isEmpty();
+                case "close":
+                    return null;
+                case "getString":
+                    Object value = column(args[0]);
+                    return value == null ? null : value.toString();
+                case "getDouble":
+                    Object number = column(args[0]);
+                    return number == null ? 0. : Double.parseDouble(number.toString());
+                case "getInt":
+                    Object integer = column(args[0]);
+                    return integer == null ? 0 : Integer.parseInt(integer.toString());
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+
+        private Object column(Object index) {
+            return rows.get(row)[(Integer) index - 1];
+        }
+    }
+}
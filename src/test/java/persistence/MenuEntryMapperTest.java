@@ -0,0 +1,91 @@
+package persistence;
+
+import application.MenuEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tester of MenuEntryMapper class.
+ * Its cache keeps only two dishes, so the others have to be read again from the table.
+ */
+public class MenuEntryMapperTest {
+
+    private final Map<String, Object[]> table = new HashMap<>();
+    private FakeDatabase db;
+    private MenuEntryMapper mapper;
+
+    @Before
+    public void setUp() throws SQLException {
+        System.setProperty("cache.menuentries.size", "2");
+        System.setProperty("cache.menuentries.policy", "lru");
+        table.put("1", new Object[]{"1", "Carbonara", "9.5", "10", "PRIMO"});
+        table.put("2", new Object[]{"2", "Tiramisu", "5.0", "10", "DOLCE"});
+        table.put("3", new Object[]{"3", "Fiorentina", "30.0", "20", "SECONDO"});
+        db = new FakeDatabase();
+        db.answer("select max(DISH_COD) from MENUENTRY", params -> FakeDatabase.rows(new Object[]{"3"}));
+        db.answer("select * from MENUENTRY where DISH_COD = ?", params -> table.containsKey(params.get(0))
+                ? FakeDatabase.rows(table.get(params.get(0))) : Collections.emptyList());
+        ConnectionPool.setInstance(new ConnectionPool(db, 2, 100));
+        mapper = new MenuEntryMapper();
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionPool.setInstance(null);
+        System.clearProperty("cache.menuentries.size");
+        System.clearProperty("cache.menuentries.policy");
+    }
+
+    private void assertDish(MenuEntry dish, String code, String name, double price, String restaurant, String type) {
+        assertEquals(code, dish.getCod());
+        assertEquals(name, dish.getDish());
+        assertEquals(price, dish.getPrice(), 0);
+        assertEquals(restaurant, dish.getRestaurantCode());
+        assertEquals(type, dish.getType());
+    }
+
+    @Test
+    public void reloadAfterEvictionTest() throws SQLException {
+        MenuEntry first = (MenuEntry) mapper.get("1");
+        assertDish(first, "1", "Carbonara", 9.5, "10", "PRIMO");
+        assertSame(first, mapper.get("1"));
+        int queries = db.getQueryCount();
+
+        mapper.get("2");
+        mapper.get("3");
+        assertEquals(queries + 2, db.getQueryCount());
+
+        MenuEntry reloaded = (MenuEntry) mapper.get("1");
+        assertEquals(queries + 3, db.getQueryCount());
+        assertDish(reloaded, "1", "Carbonara", 9.5, "10", "PRIMO");
+        assertDish((MenuEntry) mapper.get("3"), "3", "Fiorentina", 30.0, "20", "SECONDO");
+    }
+
+    @Test
+    public void cachedDishIsEvictedTest() throws SQLException {
+        MenuEntry cached = new MenuEntry("Carbonara", 9.5, "1", "10", "PRIMO");
+        assertSame(cached, mapper.cacheIfAbsent(cached));
+        int queries = db.getQueryCount();
+        assertSame(cached, mapper.get("1"));
+        assertEquals(queries, db.getQueryCount());
+
+        mapper.get("2");
+        mapper.get("3");
+        assertDish((MenuEntry) mapper.get("1"), "1", "Carbonara", 9.5, "10", "PRIMO");
+        assertEquals(queries + 3, db.getQueryCount());
+    }
+
+    @Test(expected = ObjectNotFoundException.class)
+    public void unknownDishTest() throws SQLException {
+        mapper.get("4");
+    }
+}
@@ -0,0 +1,97 @@
+package persistence;
+
+import application.Critique;
+import application.CritiqueSections;
+import application.MenuEntry;
+import application.RestaurantOverview;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of the overviews restored by OverviewMapper when the system is set up.
+ */
+public class OverviewMapperTest {
+
+    private final double delta = 0.001;
+    private OverviewMapper mapper;
+
+    @Before
+    public void setUp() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        db.answer("select * from OVERVIEW", params -> FakeDatabase.rows(
+                new Object[]{"1", "6.0", "7.0", "8.0", "5.0", "4.0", "6.0"}));
+        ConnectionPool.setInstance(new ConnectionPool(db, 2, 100));
+        mapper = new OverviewMapper();
+        mapper.loadAll();
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionPool.setInstance(null);
+    }
+
+    private static Critique critique(int code, String restaurant, double grade, double cucina) {
+        Critique c = new Critique("critic", restaurant, code);
+        c.writeVotes(new double[]{grade, grade + 1, grade - 1, grade});
+        HashMap<MenuEntry, Double> dishes = new HashMap<>();
+        dishes.put(new MenuEntry("piatto", 10., "d" + code, restaurant, "PRIMO"), cucina);
+        c.voteDishes(dishes);
+        return c;
+    }
+
+    private static Map<String, Integer> counts(List<Critique> critiques) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Critique c : critiques)
+            counts.merge(c.getRestaurantCode(), 1, Integer::sum);
+        return counts;
+    }
+
+    @Test
+    public void restoredFromRowTest() throws SQLException {
+        List<Critique> critiques = Arrays.asList(critique(0, "1", 5, 4), critique(1, "1", 7, 4));
+        mapper.restoreCritiqueCounts(counts(critiques), critiques);
+        RestaurantOverview ro = (RestaurantOverview) mapper.get("1");
+        assertTrue(ro.hasCritiqueCount());
+        assertEquals(2, ro.getCritiqueCount());
+        assertEquals(6.0, ro.getGrade(CritiqueSections.MENU), delta);
+        assertEquals(4.0, ro.getGrade(CritiqueSections.CUCINA), delta);
+    }
+
+    @Test
+    public void computedWithoutRowTest() throws SQLException {
+        RestaurantOverview withoutRow = new RestaurantOverview(new double[RestaurantOverview.CRITIQUE_SECTIONS.length]);
+        mapper.cacheObject("2", withoutRow);
+        List<Critique> critiques = new ArrayList<>(Arrays.asList(critique(0, "1", 5, 4), critique(1, "2", 3, 9),
+                critique(2, "2", 8, 6), critique(3, "1", 7, 4)));
+        mapper.restoreCritiqueCounts(counts(critiques), critiques);
+
+        RestaurantOverview expected = new RestaurantOverview();
+        expected.computeMean(Arrays.asList(critiques.get(1), critiques.get(2)));
+        RestaurantOverview ro = (RestaurantOverview) mapper.get("2");
+        assertEquals(2, ro.getCritiqueCount());
+        for (CritiqueSections section : RestaurantOverview.CRITIQUE_SECTIONS)
+            assertEquals(expected.getGrade(section), ro.getGrade(section), delta);
+        assertEquals(7.5, ro.getGrade(CritiqueSections.CUCINA), delta);
+        assertEquals(2, ((RestaurantOverview) mapper.get("1")).getCritiqueCount());
+    }
+
+    @Test
+    public void withoutCritiquesTest() throws SQLException {
+        RestaurantOverview withoutRow = new RestaurantOverview(new double[RestaurantOverview.CRITIQUE_SECTIONS.length]);
+        mapper.cacheObject("3", withoutRow);
+        mapper.restoreCritiqueCounts(new HashMap<>(), new ArrayList<>());
+        assertFalse(((RestaurantOverview) mapper.get("3")).hasCritiqueCount());
+    }
+}
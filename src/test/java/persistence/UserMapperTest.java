@@ -0,0 +1,85 @@
+package persistence;
+
+import application.User;
+import application.UserType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tester of UserMapper class.
+ * Its cache keeps only two users, so the others have to be read again from the table.
+ */
+public class UserMapperTest {
+
+    private final Map<String, Object[]> table = new HashMap<>();
+    private FakeDatabase db;
+    private UserMapper mapper;
+
+    @Before
+    public void setUp() throws SQLException {
+        System.setProperty("cache.users.size", "2");
+        System.setProperty("cache.users.policy", "lru");
+        table.put("mario", new Object[]{"mario", "pwd1", "Mario", "Rossi", "CRITIC"});
+        table.put("luigi", new Object[]{"luigi", "pwd2", "Luigi", "Verdi", "RESTAURANTOWNER"});
+        table.put("anna", new Object[]{"anna", "pwd3", "Anna", "Bianchi", "CRITIC"});
+        db = new FakeDatabase();
+        db.answer("SELECT * from USERS where BINARY USERNAME = ?", params -> table.containsKey(params.get(0))
+                ? FakeDatabase.rows(table.get(params.get(0))) : Collections.emptyList());
+        ConnectionPool.setInstance(new ConnectionPool(db, 2, 100));
+        mapper = new UserMapper();
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionPool.setInstance(null);
+        System.clearProperty("cache.users.size");
+        System.clearProperty("cache.users.policy");
+    }
+
+    private void assertUser(User user, String username, String password, String name, String surname,
+                            UserType type) {
+        assertEquals(username, user.getUsername());
+        assertEquals(password, user.getPassword());
+        assertEquals(name, user.getName());
+        assertEquals(surname, user.getSurname());
+        assertEquals(type, user.getType());
+    }
+
+    @Test
+    public void reloadAfterEvictionTest() throws SQLException {
+        User mario = (User) mapper.get("mario");
+        assertUser(mario, "mario", "pwd1", "Mario", "Rossi", UserType.CRITIC);
+        assertSame(mario, mapper.get("mario"));
+        assertEquals(1, db.getQueryCount());
+
+        assertUser((User) mapper.get("luigi"), "luigi", "pwd2", "Luigi", "Verdi", UserType.RESTAURANTOWNER);
+        mapper.get("anna");
+        assertEquals(3, db.getQueryCount());
+
+        assertUser((User) mapper.get("mario"), "mario", "pwd1", "Mario", "Rossi", UserType.CRITIC);
+        assertEquals(4, db.getQueryCount());
+    }
+
+    @Test
+    public void updatedUserIsReloadedTest() throws SQLException {
+        mapper.get("mario");
+        table.put("mario", new Object[]{"mario", "nuova", "Mario", "Rossi", "CRITIC"});
+        mapper.get("luigi");
+        mapper.get("anna");
+        assertEquals("nuova", ((User) mapper.get("mario")).getPassword());
+    }
+
+    @Test(expected = InvalidUsernameException.class)
+    public void unknownUserTest() throws SQLException {
+        mapper.get("paolo");
+    }
+}
@@ -0,0 +1,118 @@
+package persistence.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of BoundedCache class.
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void lruDropsTheLeastRecentlyUsed() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(EvictionPolicy.LRU, 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void sizeNeverExceedsTheMaximum() {
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            BoundedCache<Integer, Integer> cache = new BoundedCache<>(policy, 50);
+            for (int i = 0; i < 1000; i++) {
+                cache.put(i % 300, i);
+                cache.get(i % 7);
+                assertTrue(cache.size() <= 50);
+            }
+        }
+    }
+
+    @Test
+    public void tinyLfuKeepsPopularObjectsDuringAScan() {
+        assertTrue(hitRateDuringAScan(EvictionPolicy.TINY_LFU) > 0.9);
+    }
+
+    @Test
+    public void lruDoesNotResistAScan() {
+        assertTrue(hitRateDuringAScan(EvictionPolicy.LRU) < 0.1);
+    }
+
+    /**
+     * 90 popular objects are requested while 5000 objects are read only once, in a cache of 100 objects
+     * @return the hit rate of the requests of the popular objects
+     */
+    private double hitRateDuringAScan(EvictionPolicy policy) {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(policy, 100);
+        for (int i = 0; i < 5000; i++) {
+            int popular = i % 90;
+            if (cache.get(popular) == null)
+                cache.put(popular, popular);
+            cache.put(1000 + i, i);
+        }
+        return cache.getStats().getHitRate();
+    }
+
+    @Test
+    public void putIfAbsentKeepsTheObjectAlreadyCached() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(EvictionPolicy.TINY_LFU, 10);
+        assertNull(cache.putIfAbsent("a", 1));
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 2));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void objectsExpireAfterTheirTimeToLive() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(EvictionPolicy.LRU, 10, 20);
+        cache.put("a", 1);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        Thread.sleep(50);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getStats().getExpirationCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void statsCountHitsAndMisses() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(EvictionPolicy.TINY_LFU, 10);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        assertEquals(2, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+        assertEquals(2.0 / 3, cache.getStats().getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void fromSystemPropertiesReadsTheConfiguration() {
+        System.setProperty("cache.test.size", "7");
+        System.setProperty("cache.test.policy", "lru");
+        try {
+            BoundedCache<String, Integer> cache = BoundedCache.fromSystemProperties("test", 100);
+            assertEquals(7, cache.getMaximumSize());
+            assertEquals(EvictionPolicy.LRU, cache.getPolicy());
+        } finally {
+            System.clearProperty("cache.test.size");
+            System.clearProperty("cache.test.policy");
+        }
+        assertEquals(100, BoundedCache.fromSystemProperties("test", 100).getMaximumSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theMaximumSizeHasToBePositive() {
+        new BoundedCache<String, Integer>(EvictionPolicy.LRU, 0);
+    }
+}
@@ -0,0 +1,42 @@
+package persistence.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tester of FrequencySketch class.
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void frequencyIsNeverUnderestimated() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int key = 0; key < 100; key++) {
+            for (int i = 0; i < key % 10; i++)
+                sketch.increment(key);
+        }
+        for (int key = 0; key < 100; key++)
+            assertTrue(sketch.frequency(key) >= key % 10);
+    }
+
+    @Test
+    public void frequencyIsAtMostFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 100; i++)
+            sketch.increment("a");
+        assertEquals(15, sketch.frequency("a"));
+    }
+
+    @Test
+    public void oldFrequenciesAreHalved() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++)
+            sketch.increment("a");
+        assertEquals(15, sketch.frequency("a"));
+        for (int i = 0; i < 200; i++)
+            sketch.increment("key" + i);
+        assertTrue(sketch.frequency("a") < 15);
+    }
+}